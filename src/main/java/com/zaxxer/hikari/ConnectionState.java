@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari;
+
+import java.util.Objects;
+
+/**
+ * The state wanted of a connection obtained with {@link HikariDataSource#getConnection(ConnectionState)}.  The pool
+ * prefers an idle connection that already has this state, and otherwise sets on the connection only the properties
+ * that differ.  Properties that are not specified have the pool's defaults, as for {@link HikariDataSource#getConnection()}.
+ * <p>
+ * A state is immutable, and may be created once and shared, for example per tenant:
+ *
+ * <blockquote><pre>
+ *     ConnectionState tenantState = ConnectionState.defaults().withSchema("tenant_42");
+ *     try (Connection connection = dataSource.getConnection(tenantState)) {
+ *        ...
+ *     }
+ * </pre></blockquote>
+ *
+ * The state a borrower leaves on a connection is only kept for the next borrower, rather than reset when the
+ * connection is returned, if {@link HikariConfig#setDeferStateReset(boolean)} is enabled, or for a catalog or schema
+ * for which the pool has no default.
+ */
+public final class ConnectionState
+{
+   private static final ConnectionState DEFAULTS = new ConnectionState(null, -1, null, null);
+
+   private final Boolean readOnly;
+   private final int transactionIsolation;
+   private final String catalog;
+   private final String schema;
+
+   private ConnectionState(final Boolean readOnly, final int transactionIsolation, final String catalog, final String schema)
+   {
+      this.readOnly = readOnly;
+      this.transactionIsolation = transactionIsolation;
+      this.catalog = catalog;
+      this.schema = schema;
+   }
+
+   /**
+    * Get the state that specifies no properties, from which a state is derived with the {@code with*} methods.
+    *
+    * @return the state of the pool's defaults
+    */
+   public static ConnectionState defaults()
+   {
+      return DEFAULTS;
+   }
+
+   /**
+    * Derive a state with the specified read-only mode.
+    *
+    * @param readOnly the read-only mode
+    * @return the derived state
+    */
+   public ConnectionState withReadOnly(final boolean readOnly)
+   {
+      return new ConnectionState(readOnly, transactionIsolation, catalog, schema);
+   }
+
+   /**
+    * Derive a state with the specified transaction isolation level.
+    *
+    * @param transactionIsolation one of the {@code java.sql.Connection.TRANSACTION_*} levels
+    * @return the derived state
+    */
+   public ConnectionState withTransactionIsolation(final int transactionIsolation)
+   {
+      return new ConnectionState(readOnly, transactionIsolation, catalog, schema);
+   }
+
+   /**
+    * Derive a state with the specified catalog.
+    *
+    * @param catalog the catalog
+    * @return the derived state
+    */
+   public ConnectionState withCatalog(final String catalog)
+   {
+      return new ConnectionState(readOnly, transactionIsolation, catalog, schema);
+   }
+
+   /**
+    * Derive a state with the specified schema.
+    *
+    * @param schema the schema
+    * @return the derived state
+    */
+   public ConnectionState withSchema(final String schema)
+   {
+      return new ConnectionState(readOnly, transactionIsolation, catalog, schema);
+   }
+
+   /**
+    * Get the read-only mode of this state.
+    *
+    * @return the read-only mode, or null if not specified
+    */
+   public Boolean getReadOnly()
+   {
+      return readOnly;
+   }
+
+   /**
+    * Get the transaction isolation level of this state.
+    *
+    * @return the transaction isolation level, or -1 if not specified
+    */
+   public int getTransactionIsolation()
+   {
+      return transactionIsolation;
+   }
+
+   /**
+    * Get the catalog of this state.
+    *
+    * @return the catalog, or null if not specified
+    */
+   public String getCatalog()
+   {
+      return catalog;
+   }
+
+   /**
+    * Get the schema of this state.
+    *
+    * @return the schema, or null if not specified
+    */
+   public String getSchema()
+   {
+      return schema;
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public boolean equals(final Object other)
+   {
+      if (this == other) {
+         return true;
+      }
+      if (!(other instanceof ConnectionState)) {
+         return false;
+      }
+
+      final var that = (ConnectionState) other;
+      return transactionIsolation == that.transactionIsolation && Objects.equals(readOnly, that.readOnly)
+         && Objects.equals(catalog, that.catalog) && Objects.equals(schema, that.schema);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public int hashCode()
+   {
+      return Objects.hash(readOnly, transactionIsolation, catalog, schema);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public String toString()
+   {
+      return "ConnectionState{readOnly=" + readOnly + ", transactionIsolation=" + transactionIsolation
+         + ", catalog=" + catalog + ", schema=" + schema + '}';
+   }
+}
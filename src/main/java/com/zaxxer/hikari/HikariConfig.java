@@ -18,7 +18,9 @@ package com.zaxxer.hikari;
 
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.util.BorrowOrder;
 import com.zaxxer.hikari.util.Credentials;
+import com.zaxxer.hikari.util.HandoffPolicy;
 import com.zaxxer.hikari.util.PropertyElf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +32,9 @@ import java.io.*;
 import java.lang.reflect.Modifier;
 import java.security.AccessControlException;
 import java.sql.Connection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TreeSet;
 import java.util.concurrent.ScheduledExecutorService;
@@ -54,6 +59,7 @@ public class HikariConfig implements HikariConfigMXBean
    private static final long MAX_LIFETIME = MINUTES.toMillis(30);
    private static final long DEFAULT_KEEPALIVE_TIME = MINUTES.toMillis(2);
    private static final int DEFAULT_POOL_SIZE = 10;
+   private static final int DEFAULT_PRIORITY_STARVATION_LIMIT = 8;
 
    private static boolean unitTest = false;
 
@@ -88,6 +94,29 @@ public class HikariConfig implements HikariConfigMXBean
    private boolean isIsolateInternalQueries;
    private boolean isRegisterMbeans;
    private boolean isAllowPoolSuspension;
+   private HandoffPolicy handoffPolicy;
+   private BorrowOrder borrowOrder;
+   private int priorityStarvationLimit;
+   private Map<String, Integer> lanes;
+   private boolean isPredictiveAdmission;
+   private int maxWaiters;
+   private boolean isAdaptivePoolSizing;
+   private int minAdaptivePoolSize;
+   private long demandWindow;
+   private boolean isPredictivePrewarming;
+   private String demandProfile;
+   private int connectionCreationParallelism;
+   private boolean isBlockUntilFilled;
+   private int initialFillParallelism;
+   private int connectionCreationRate;
+   private boolean isConnectionCreationRateShared;
+   private int circuitBreakerThreshold;
+   private int maxConcurrentRetirements;
+   private long softEvictionWindow;
+   private boolean isUseTimerWheel;
+   private boolean isBackgroundValidation;
+   private boolean isDeferStateReset;
+   private boolean isUseVirtualThreads;
    private DataSource dataSource;
    private Properties dataSourceProperties;
    private ThreadFactory threadFactory;
@@ -114,6 +143,7 @@ public class HikariConfig implements HikariConfigMXBean
    {
       dataSourceProperties = new Properties();
       healthCheckProperties = new Properties();
+      lanes = new LinkedHashMap<>();
 
       minIdle = -1;
       maxPoolSize = -1;
@@ -124,6 +154,12 @@ public class HikariConfig implements HikariConfigMXBean
       initializationFailTimeout = 1;
       isAutoCommit = true;
       keepaliveTime = DEFAULT_KEEPALIVE_TIME;
+      handoffPolicy = HandoffPolicy.FAIR;
+      borrowOrder = BorrowOrder.MRU;
+      priorityStarvationLimit = DEFAULT_PRIORITY_STARVATION_LIMIT;
+      minAdaptivePoolSize = 1;
+      connectionCreationParallelism = 1;
+      isBlockUntilFilled = Boolean.getBoolean("com.zaxxer.hikari.blockUntilFilled");
 
       var systemProp = System.getProperty("hikaricp.configurationFile");
       if (systemProp != null) {
@@ -578,6 +614,569 @@ public class HikariConfig implements HikariConfigMXBean
       this.isAllowPoolSuspension = isAllowPoolSuspension;
    }
 
+   /**
+    * Get the policy used to choose which waiting thread receives a connection that is returned
+    * to the pool while threads are blocked in {@code getConnection()}.
+    *
+    * @return the connection hand-off policy
+    */
+   public HandoffPolicy getHandoffPolicy()
+   {
+      return handoffPolicy;
+   }
+
+   /**
+    * Set the policy used to choose which waiting thread receives a connection that is returned
+    * to the pool while threads are blocked in {@code getConnection()}.  {@link HandoffPolicy#FAIR}
+    * (the default) serves waiters in arrival order, {@link HandoffPolicy#UNFAIR} serves the most
+    * recently arrived waiter first, trading tail latency for throughput under contention, and
+    * {@link HandoffPolicy#DEADLINE} serves the waiter whose timeout expires soonest first.
+    *
+    * @param handoffPolicy the connection hand-off policy
+    */
+   public void setHandoffPolicy(HandoffPolicy handoffPolicy)
+   {
+      checkIfSealed();
+      this.handoffPolicy = handoffPolicy;
+   }
+
+   /**
+    * Get the order in which idle connections are handed out.
+    *
+    * @return the connection borrow order
+    */
+   public BorrowOrder getBorrowOrder()
+   {
+      return borrowOrder;
+   }
+
+   /**
+    * Set the order in which idle connections are handed out.  {@link BorrowOrder#MRU} (the default)
+    * concentrates work on as few connections as possible, so that surplus connections can be retired
+    * by {@code idleTimeout}.  {@link BorrowOrder#FIFO} and {@link BorrowOrder#ROUND_ROBIN} spread work
+    * evenly across all connections, for example behind a database proxy that balances per connection.
+    *
+    * @param borrowOrder the connection borrow order
+    */
+   public void setBorrowOrder(BorrowOrder borrowOrder)
+   {
+      checkIfSealed();
+      this.borrowOrder = borrowOrder;
+   }
+
+   /**
+    * Get the number of consecutive hand-offs to higher {@link Priority} classes that a waiting lower
+    * priority class tolerates before it is served.
+    *
+    * @return the priority starvation limit
+    */
+   public int getPriorityStarvationLimit()
+   {
+      return priorityStarvationLimit;
+   }
+
+   /**
+    * Set the number of consecutive hand-offs to higher {@link Priority} classes that a waiting lower
+    * priority class tolerates before it is served.  A low value approaches fair scheduling across
+    * classes, a high value approaches strict priority.  Defaults to 8.
+    *
+    * @param priorityStarvationLimit the priority starvation limit
+    */
+   public void setPriorityStarvationLimit(int priorityStarvationLimit)
+   {
+      checkIfSealed();
+      this.priorityStarvationLimit = priorityStarvationLimit;
+   }
+
+   /**
+    * Add a named lane to the pool.  A lane is a bulkhead within the pool: connections borrowed
+    * through it with {@link HikariDataSource#getLaneConnection(String)} are taken from the pool's
+    * shared connections, but no more than {@code maxConnections} of them at once, so that one
+    * workload cannot take every connection from the others.  Lanes can also be configured with
+    * properties of the form {@code lane.<name>.max=<maxConnections>}.
+    *
+    * @param name the name of the lane
+    * @param maxConnections the maximum number of connections that may be borrowed through the lane at once
+    */
+   public void addLane(String name, int maxConnections)
+   {
+      checkIfSealed();
+      if (name == null || name.isEmpty()) {
+         throw new IllegalArgumentException("lane name cannot be empty");
+      }
+      if (maxConnections < 1) {
+         throw new IllegalArgumentException("maximum connections of lane " + name + " cannot be less than 1");
+      }
+      lanes.put(name, maxConnections);
+   }
+
+   /**
+    * Get the lanes of the pool, and the maximum number of connections that may be borrowed through each.
+    *
+    * @return an unmodifiable map of lane name to maximum connections
+    */
+   public Map<String, Integer> getLanes()
+   {
+      return Collections.unmodifiableMap(lanes);
+   }
+
+   /**
+    * Determine whether requests are rejected at once when they are not expected to receive a connection
+    * before their timeout.
+    *
+    * @return {@code true} if predictive admission is enabled, {@code false} otherwise
+    */
+   public boolean isPredictiveAdmission()
+   {
+      return isPredictiveAdmission;
+   }
+
+   /**
+    * Set whether requests are rejected at once when they are not expected to receive a connection before
+    * their timeout.  While the pool is saturated, the wait of a new request is predicted from the number of
+    * requests already waiting and the rate at which connections have recently been returned to the pool; if
+    * the prediction exceeds the request's timeout, it fails immediately with a
+    * {@link java.sql.SQLTransientConnectionException} instead of blocking.  Defaults to {@code false}.
+    *
+    * @param isPredictiveAdmission {@code true} to enable predictive admission, {@code false} otherwise
+    */
+   public void setPredictiveAdmission(boolean isPredictiveAdmission)
+   {
+      checkIfSealed();
+      this.isPredictiveAdmission = isPredictiveAdmission;
+   }
+
+   /**
+    * Get the maximum number of requests that may wait for a connection at once.
+    *
+    * @return the maximum number of waiting requests, or 0 for no limit
+    */
+   public int getMaximumWaiters()
+   {
+      return maxWaiters;
+   }
+
+   /**
+    * Set the maximum number of requests that may wait for a connection at once.  A request that finds this
+    * many requests already waiting, and no idle connection, fails immediately with a
+    * {@link java.sql.SQLTransientConnectionException}, so that the pool sheds load rather than queueing it
+    * without bound.  Defaults to 0, for no limit.
+    *
+    * @param maxWaiters the maximum number of waiting requests, or 0 for no limit
+    */
+   public void setMaximumWaiters(int maxWaiters)
+   {
+      checkIfSealed();
+      this.maxWaiters = maxWaiters;
+   }
+
+   /**
+    * Determine whether the maximum size of the pool adapts to the load on the database.
+    *
+    * @return {@code true} if adaptive pool sizing is enabled, {@code false} otherwise
+    */
+   public boolean isAdaptivePoolSizing()
+   {
+      return isAdaptivePoolSizing;
+   }
+
+   /**
+    * Set whether the maximum size of the pool adapts to the load on the database.  When enabled, the pool
+    * starts with a limit of {@code minimumAdaptivePoolSize} connections, raises it while requests wait for
+    * connections, and lowers it when the time connections are held rises past its baseline, which is a sign
+    * that more connections only add load to the database.  The limit never exceeds {@code maximumPoolSize}.
+    * Defaults to {@code false}.
+    *
+    * @param isAdaptivePoolSizing {@code true} to enable adaptive pool sizing, {@code false} otherwise
+    */
+   public void setAdaptivePoolSizing(boolean isAdaptivePoolSizing)
+   {
+      checkIfSealed();
+      this.isAdaptivePoolSizing = isAdaptivePoolSizing;
+   }
+
+   /**
+    * Get the lowest limit on the size of the pool when adaptive pool sizing is enabled.
+    *
+    * @return the minimum adaptive pool size
+    */
+   public int getMinimumAdaptivePoolSize()
+   {
+      return minAdaptivePoolSize;
+   }
+
+   /**
+    * Set the lowest limit on the size of the pool when adaptive pool sizing is enabled.  Defaults to 1.
+    *
+    * @param minAdaptivePoolSize the minimum adaptive pool size
+    */
+   public void setMinimumAdaptivePoolSize(int minAdaptivePoolSize)
+   {
+      checkIfSealed();
+      this.minAdaptivePoolSize = minAdaptivePoolSize;
+   }
+
+   /**
+    * Get the window over which the peak demand for connections is tracked to shrink the pool.
+    *
+    * @return the demand window in milliseconds, or 0 if demand-driven shrinking is disabled
+    */
+   public long getDemandWindow()
+   {
+      return demandWindow;
+   }
+
+   /**
+    * Set the window over which the peak demand for connections is tracked to shrink the pool.  When set, the
+    * housekeeper closes idle connections in excess of the highest number of connections in use (plus requests
+    * waiting) at any time within the window, half of the excess at a time, without waiting for them to reach
+    * {@code idleTimeout}.  The pool never shrinks below {@code minimumIdle} idle connections.  Defaults to 0,
+    * which disables demand-driven shrinking.
+    *
+    * @param demandWindowMs the demand window in milliseconds, or 0 to disable demand-driven shrinking
+    */
+   public void setDemandWindow(long demandWindowMs)
+   {
+      checkIfSealed();
+      this.demandWindow = demandWindowMs;
+   }
+
+   /**
+    * Determine whether the pool opens connections ahead of the demand predicted by its demand profile.
+    *
+    * @return {@code true} if predictive pre-warming is enabled, {@code false} otherwise
+    */
+   public boolean isPredictivePrewarming()
+   {
+      return isPredictivePrewarming;
+   }
+
+   /**
+    * Set whether the pool opens connections ahead of the demand predicted by its demand profile.  When enabled,
+    * the pool learns the peak demand for connections in each quarter hour of the week, and raises the number of
+    * idle connections it maintains ahead of a recurring ramp, lowering it again afterwards.  The profile can be
+    * exported with {@link HikariPoolMXBean#getDemandProfile()} and restored with {@link #setDemandProfile(String)}.
+    * Defaults to {@code false}.
+    *
+    * @param isPredictivePrewarming {@code true} to enable predictive pre-warming, {@code false} otherwise
+    */
+   public void setPredictivePrewarming(boolean isPredictivePrewarming)
+   {
+      checkIfSealed();
+      this.isPredictivePrewarming = isPredictivePrewarming;
+   }
+
+   /**
+    * Get the demand profile that predictive pre-warming starts with.
+    *
+    * @return the initial demand profile, or null to start with an empty profile
+    */
+   public String getDemandProfile()
+   {
+      return demandProfile;
+   }
+
+   /**
+    * Set the demand profile that predictive pre-warming starts with, as previously exported with
+    * {@link HikariPoolMXBean#getDemandProfile()}.  A malformed profile is ignored, with a warning.
+    *
+    * @param demandProfile the initial demand profile, or null to start with an empty profile
+    */
+   public void setDemandProfile(String demandProfile)
+   {
+      checkIfSealed();
+      this.demandProfile = demandProfile;
+   }
+
+   /**
+    * Get the maximum number of connections the pool opens concurrently.
+    *
+    * @return the connection creation parallelism
+    */
+   public int getConnectionCreationParallelism()
+   {
+      return connectionCreationParallelism;
+   }
+
+   /**
+    * Set the maximum number of connections the pool opens concurrently.  The number of connections being
+    * opened at any time follows the shortfall of idle connections against waiting requests (and against
+    * {@code minimumIdle}), up to this limit, so that refilling the pool after an outage takes roughly this
+    * many times less time.  Defaults to 1.
+    *
+    * @param connectionCreationParallelism the connection creation parallelism
+    */
+   public void setConnectionCreationParallelism(int connectionCreationParallelism)
+   {
+      checkIfSealed();
+      this.connectionCreationParallelism = connectionCreationParallelism;
+   }
+
+   /**
+    * Determine whether the pool constructor waits for the initial fill of the pool to complete.
+    *
+    * @return true if the pool constructor waits for {@code minimumIdle} connections
+    */
+   public boolean isBlockUntilFilled()
+   {
+      return isBlockUntilFilled;
+   }
+
+   /**
+    * Set whether the pool constructor waits, for up to {@code initializationFailTimeout}, for the pool to
+    * open {@code minimumIdle} connections before returning.  This only applies when
+    * {@code initializationFailTimeout} is greater than 1.  Applications that would rather not block can wait
+    * on {@link HikariDataSource#whenReady()} or {@link HikariDataSource#awaitReady(long, java.util.concurrent.TimeUnit)}
+    * instead.  Defaults to the value of the {@code com.zaxxer.hikari.blockUntilFilled} system property, or false.
+    *
+    * @param isBlockUntilFilled true to wait for the initial fill of the pool
+    */
+   public void setBlockUntilFilled(boolean isBlockUntilFilled)
+   {
+      checkIfSealed();
+      this.isBlockUntilFilled = isBlockUntilFilled;
+   }
+
+   /**
+    * Get the maximum number of connections the pool opens concurrently during its initial fill.
+    *
+    * @return the initial fill parallelism, or 0 if it is chosen automatically
+    */
+   public int getInitialFillParallelism()
+   {
+      return initialFillParallelism;
+   }
+
+   /**
+    * Set the maximum number of connections the pool opens concurrently while it is filling to
+    * {@code minimumIdle} after startup.  Once the pool is filled, {@code connectionCreationParallelism}
+    * applies.  The default of 0 uses the number of processors, up to 16, if {@code blockUntilFilled} is set,
+    * and {@code connectionCreationParallelism} otherwise.
+    *
+    * @param initialFillParallelism the initial fill parallelism, or 0 to choose it automatically
+    */
+   public void setInitialFillParallelism(int initialFillParallelism)
+   {
+      checkIfSealed();
+      this.initialFillParallelism = initialFillParallelism;
+   }
+
+   /**
+    * Get the maximum number of connections the pool opens per second.
+    *
+    * @return the connection creation rate, or 0 if it is not limited
+    */
+   public int getConnectionCreationRate()
+   {
+      return connectionCreationRate;
+   }
+
+   /**
+    * Set the maximum number of connections the pool opens per second, so that a fleet of applications
+    * reconnecting after a database restart does not overwhelm the database with logins.  Up to one
+    * second's worth of connections may be opened at once.  Defaults to 0, which does not limit the rate.
+    *
+    * @param connectionCreationRate the connection creation rate, or 0 for no limit
+    */
+   public void setConnectionCreationRate(int connectionCreationRate)
+   {
+      checkIfSealed();
+      this.connectionCreationRate = connectionCreationRate;
+   }
+
+   /**
+    * Determine whether the connection creation rate is shared by all of the pools in the JVM.
+    *
+    * @return true if the connection creation rate applies to the JVM as a whole
+    */
+   public boolean isConnectionCreationRateShared()
+   {
+      return isConnectionCreationRateShared;
+   }
+
+   /**
+    * Set whether the connection creation rate is shared by all of the pools in the JVM that enable this
+    * setting, rather than applied to each pool separately.  The rate of the shared limit is the
+    * {@code connectionCreationRate} of the first pool to use it.  Defaults to false.
+    *
+    * @param isConnectionCreationRateShared true to share the connection creation rate across pools
+    */
+   public void setConnectionCreationRateShared(boolean isConnectionCreationRateShared)
+   {
+      checkIfSealed();
+      this.isConnectionCreationRateShared = isConnectionCreationRateShared;
+   }
+
+   /**
+    * Get the number of consecutive connection failures that opens the pool's circuit breaker.
+    *
+    * @return the circuit breaker threshold, or 0 if the circuit breaker is disabled
+    */
+   public int getCircuitBreakerThreshold()
+   {
+      return circuitBreakerThreshold;
+   }
+
+   /**
+    * Set the number of consecutive failures to open a connection after which the pool's circuit breaker
+    * opens.  While it is open, requests that find no idle connection fail at once with the cause of the last
+    * failure, instead of waiting out {@code connectionTimeout}, and the pool keeps trying to open connections
+    * in the background.  The first connection opened closes the circuit.  Defaults to 0, which disables the
+    * circuit breaker.
+    *
+    * @param circuitBreakerThreshold the circuit breaker threshold, or 0 to disable it
+    */
+   public void setCircuitBreakerThreshold(int circuitBreakerThreshold)
+   {
+      checkIfSealed();
+      this.circuitBreakerThreshold = circuitBreakerThreshold;
+   }
+
+   /**
+    * Get the maximum number of connections the pool retires at once, make-before-break.
+    *
+    * @return the maximum number of concurrent retirements, or 0 if connections are evicted before they are replaced
+    */
+   public int getMaxConcurrentRetirements()
+   {
+      return maxConcurrentRetirements;
+   }
+
+   /**
+    * Set the maximum number of connections the pool retires at once when they pass {@code maxLifetime} or are
+    * soft-evicted through the MXBean.  When set, the pool opens the successor of a retiring connection before it
+    * evicts the connection, so that retirement does not reduce the capacity of the pool under load; the pool may
+    * exceed {@code maximumPoolSize} by this many connections while successors are being opened.  Further
+    * retirements wait their turn.  Defaults to 0, which evicts a retiring connection first and then replaces it.
+    *
+    * @param maxConcurrentRetirements the maximum number of concurrent retirements, or 0 to evict before replacing
+    */
+   public void setMaxConcurrentRetirements(int maxConcurrentRetirements)
+   {
+      checkIfSealed();
+      this.maxConcurrentRetirements = maxConcurrentRetirements;
+   }
+
+   /**
+    * Get the window over which soft eviction through the MXBean is spread.
+    *
+    * @return the soft eviction window in milliseconds, or 0 if all connections are evicted at once
+    */
+   public long getSoftEvictionWindow()
+   {
+      return softEvictionWindow;
+   }
+
+   /**
+    * Set the window, in milliseconds, over which {@link HikariPoolMXBean#softEvictConnections()} spreads the
+    * eviction of the pool's connections, so that evicting the pool does not cause a storm of reconnections.
+    * Defaults to 0, which evicts all connections at once.
+    *
+    * @param softEvictionWindowMs the soft eviction window in milliseconds, or 0 to evict all connections at once
+    */
+   public void setSoftEvictionWindow(long softEvictionWindowMs)
+   {
+      checkIfSealed();
+      this.softEvictionWindow = softEvictionWindowMs;
+   }
+
+   /**
+    * Determine whether the pool's per-connection timers run on the shared timing wheel.
+    *
+    * @return {@code true} if the timing wheel is used, {@code false} otherwise
+    */
+   public boolean isUseTimerWheel()
+   {
+      return isUseTimerWheel;
+   }
+
+   /**
+    * Set whether the pool's per-connection timers (maxLifetime and leak detection) are scheduled on
+    * a timing wheel shared by all of the pools in the JVM, rather than on the pool's scheduled executor.
+    * Scheduling and cancelling a timer on the wheel is cheaper, which matters most with leak detection, whose
+    * timer is scheduled and cancelled on every borrow, but timers fire up to 100ms late.  Defaults to
+    * {@code false}.
+    *
+    * @param useTimerWheel {@code true} to use the timing wheel, {@code false} otherwise
+    */
+   public void setUseTimerWheel(boolean useTimerWheel)
+   {
+      checkIfSealed();
+      this.isUseTimerWheel = useTimerWheel;
+   }
+
+   /**
+    * Determine whether idle connections are validated in the background, ahead of the threads that borrow them.
+    *
+    * @return {@code true} if background validation is enabled, {@code false} otherwise
+    */
+   public boolean isBackgroundValidation()
+   {
+      return isBackgroundValidation;
+   }
+
+   /**
+    * Set whether idle connections are validated in the background, by the housekeeping executor, shortly
+    * before the window in which they may be borrowed without validation expires.  A connection being validated
+    * is skipped by borrowers, so that {@link #getConnection()} does not wait on the database to validate a
+    * connection, or loop back after finding it dead, in the steady state.  Defaults to {@code false}.
+    *
+    * @param backgroundValidation {@code true} to validate idle connections in the background, {@code false} otherwise
+    */
+   public void setBackgroundValidation(boolean backgroundValidation)
+   {
+      checkIfSealed();
+      this.isBackgroundValidation = backgroundValidation;
+   }
+
+   /**
+    * Determine whether the reset of the state of a returned connection is deferred to its next borrower.
+    *
+    * @return {@code true} if the state reset is deferred, {@code false} otherwise
+    */
+   public boolean isDeferStateReset()
+   {
+      return isDeferStateReset;
+   }
+
+   /**
+    * Set whether the reset of the state of a returned connection (readOnly, autoCommit, isolation, catalog, network
+    * timeout and schema) is deferred to its next borrower.  The state left on the connection is recorded when it is
+    * returned, and reset just before the next borrower first uses the connection, unless that borrower sets the same
+    * property first, in which case the reset, and the borrower's own change if the values match, are skipped.  This
+    * removes the reset from {@code Connection.close()}, and saves the round trips of borrowers that change the state
+    * of every connection in the same way.  Defaults to {@code false}.
+    *
+    * @param deferStateReset {@code true} to defer the state reset, {@code false} to reset the state on close
+    */
+   public void setDeferStateReset(boolean deferStateReset)
+   {
+      checkIfSealed();
+      this.isDeferStateReset = deferStateReset;
+   }
+
+   /**
+    * Determine whether the pool's connection adder and closer run on virtual threads.
+    *
+    * @return {@code true} if virtual threads are used, {@code false} otherwise
+    */
+   public boolean isUseVirtualThreads()
+   {
+      return isUseVirtualThreads;
+   }
+
+   /**
+    * Set whether the pool's connection adder and closer run on virtual threads rather than platform threads.
+    * Ignored, with a warning, on JVMs that do not support virtual threads.  Defaults to {@code false}.
+    *
+    * @param useVirtualThreads {@code true} to use virtual threads, {@code false} otherwise
+    */
+   public void setUseVirtualThreads(boolean useVirtualThreads)
+   {
+      checkIfSealed();
+      this.isUseVirtualThreads = useVirtualThreads;
+   }
+
    /**
     * Get the pool initialization failure timeout.  See {@code #setInitializationFailTimeout(long)}
     * for details.
@@ -1011,6 +1610,8 @@ public class HikariConfig implements HikariConfigMXBean
          }
       }
 
+      // validate() normalises the lanes in place, which must not rewrite the lanes of this config
+      other.lanes = new LinkedHashMap<>(lanes);
       other.sealed = false;
    }
 
@@ -1131,6 +1732,80 @@ public class HikariConfig implements HikariConfigMXBean
          maxPoolSize = DEFAULT_POOL_SIZE;
       }
 
+      lanes.replaceAll((name, max) -> {
+         if (max > maxPoolSize) {
+            LOGGER.warn("{} - maximum connections of lane {} is more than maxPoolSize, setting to {}.", poolName, name, maxPoolSize);
+            return maxPoolSize;
+         }
+         return max;
+      });
+
+      if (priorityStarvationLimit < 1) {
+         LOGGER.warn("{} - priorityStarvationLimit is less than 1, setting to default {}.", poolName, DEFAULT_PRIORITY_STARVATION_LIMIT);
+         priorityStarvationLimit = DEFAULT_PRIORITY_STARVATION_LIMIT;
+      }
+
+      if (minAdaptivePoolSize < 1) {
+         LOGGER.warn("{} - minimumAdaptivePoolSize is less than 1, setting to 1.", poolName);
+         minAdaptivePoolSize = 1;
+      }
+      else if (minAdaptivePoolSize > maxPoolSize) {
+         LOGGER.warn("{} - minimumAdaptivePoolSize is more than maxPoolSize, setting to {}.", poolName, maxPoolSize);
+         minAdaptivePoolSize = maxPoolSize;
+      }
+
+      if (connectionCreationParallelism < 1) {
+         LOGGER.warn("{} - connectionCreationParallelism is less than 1, setting to 1.", poolName);
+         connectionCreationParallelism = 1;
+      }
+      else if (connectionCreationParallelism > maxPoolSize) {
+         LOGGER.warn("{} - connectionCreationParallelism is more than maxPoolSize, setting to {}.", poolName, maxPoolSize);
+         connectionCreationParallelism = maxPoolSize;
+      }
+
+      if (initialFillParallelism < 0) {
+         LOGGER.warn("{} - initialFillParallelism is less than 0, setting to 0 (automatic).", poolName);
+         initialFillParallelism = 0;
+      }
+      else if (initialFillParallelism > maxPoolSize) {
+         LOGGER.warn("{} - initialFillParallelism is more than maxPoolSize, setting to {}.", poolName, maxPoolSize);
+         initialFillParallelism = maxPoolSize;
+      }
+
+      if (connectionCreationRate < 0) {
+         LOGGER.warn("{} - connectionCreationRate is less than 0, setting to 0 (unlimited).", poolName);
+         connectionCreationRate = 0;
+      }
+
+      if (circuitBreakerThreshold < 0) {
+         LOGGER.warn("{} - circuitBreakerThreshold is less than 0, setting to 0 (disabled).", poolName);
+         circuitBreakerThreshold = 0;
+      }
+
+      if (maxConcurrentRetirements < 0) {
+         LOGGER.warn("{} - maxConcurrentRetirements is less than 0, setting to 0 (disabled).", poolName);
+         maxConcurrentRetirements = 0;
+      }
+      else if (maxConcurrentRetirements > maxPoolSize) {
+         LOGGER.warn("{} - maxConcurrentRetirements is more than maxPoolSize, setting to {}.", poolName, maxPoolSize);
+         maxConcurrentRetirements = maxPoolSize;
+      }
+
+      if (softEvictionWindow < 0) {
+         LOGGER.warn("{} - softEvictionWindow is less than 0, setting to 0 (disabled).", poolName);
+         softEvictionWindow = 0;
+      }
+
+      if (demandWindow < 0) {
+         LOGGER.warn("{} - demandWindow is less than 0, setting to 0 (disabled).", poolName);
+         demandWindow = 0;
+      }
+
+      if (maxWaiters < 0) {
+         LOGGER.warn("{} - maximumWaiters is less than 0, setting to 0 (no limit).", poolName);
+         maxWaiters = 0;
+      }
+
       if (minIdle < 0 || minIdle > maxPoolSize) {
          minIdle = maxPoolSize;
       }
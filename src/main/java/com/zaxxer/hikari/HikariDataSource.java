@@ -28,6 +28,10 @@ import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.zaxxer.hikari.pool.HikariPool.POOL_NORMAL;
@@ -99,6 +103,152 @@ public class HikariDataSource extends HikariConfig implements DataSource, Closea
          return fastPathPool.getConnection();
       }
 
+      return startPool().getConnection();
+   }
+
+   /**
+    * Get a connection from the pool on behalf of a request of the specified priority class.  While the
+    * pool is saturated, connections returned to the pool are handed to waiting requests of higher
+    * priority classes first; see {@link Priority}.
+    *
+    * @param priority the priority class of the request
+    * @return a connection from the pool
+    * @throws SQLException if a connection could not be obtained within {@code connectionTimeout}
+    */
+   public Connection getConnection(final Priority priority) throws SQLException
+   {
+      if (isClosed()) {
+         throw new SQLException("HikariDataSource " + this + " has been closed.");
+      }
+
+      return (fastPathPool != null ? fastPathPool : startPool()).getConnection(priority);
+   }
+
+   /**
+    * Get a connection of the specified state from the pool.  An idle connection that already has the
+    * state, left on it by a previous borrower, is preferred, so that for example switching the schema
+    * per tenant costs no round trips to the database when the pool holds a connection of the tenant;
+    * otherwise only the properties of the state that the connection does not have are set on it.  See
+    * {@link ConnectionState}.
+    *
+    * @param wanted the state wanted of the connection
+    * @return a connection from the pool
+    * @throws SQLException if a connection could not be obtained within {@code connectionTimeout}, or its
+    *         state could not be set
+    */
+   public Connection getConnection(final ConnectionState wanted) throws SQLException
+   {
+      if (isClosed()) {
+         throw new SQLException("HikariDataSource " + this + " has been closed.");
+      }
+
+      return (fastPathPool != null ? fastPathPool : startPool()).getConnection(wanted);
+   }
+
+   /**
+    * Get a connection from the pool through the specified lane.  The connection is one of the pool's
+    * shared connections, but no more than the lane's maximum may be borrowed through the lane at once;
+    * a request that finds the lane's quota exhausted waits for a connection of the lane to be returned,
+    * up to {@code connectionTimeout}.  See {@link HikariConfig#addLane(String, int)}.
+    *
+    * @param lane the name of a configured lane
+    * @return a connection from the pool
+    * @throws SQLException if a connection could not be obtained within {@code connectionTimeout}
+    * @throws IllegalArgumentException if no lane of that name is configured
+    */
+   public Connection getLaneConnection(final String lane) throws SQLException
+   {
+      if (isClosed()) {
+         throw new SQLException("HikariDataSource " + this + " has been closed.");
+      }
+
+      return (fastPathPool != null ? fastPathPool : startPool()).getLaneConnection(lane);
+   }
+
+   /**
+    * Get a connection from the pool without blocking the calling thread while waiting for one.  If
+    * no connection is idle, the returned future is completed when one is returned to the pool, on
+    * a thread of the pool rather than the thread that returns the connection; use
+    * {@link #getConnectionAsync(long, Executor)} to complete it on an executor of your choosing.  The
+    * future fails with a {@link java.sql.SQLTransientConnectionException} if no connection becomes
+    * available within the specified timeout.  Cancelling the future withdraws the request.
+    *
+    * @param timeoutMs the maximum number of milliseconds to wait for a connection
+    * @return a future completed with a connection from the pool
+    */
+   public CompletableFuture<Connection> getConnectionAsync(final long timeoutMs)
+   {
+      return getConnectionAsync(timeoutMs, null);
+   }
+
+   /**
+    * As {@link #getConnectionAsync(long)}, but if no connection is idle the returned future is completed
+    * on the specified executor.
+    *
+    * @param timeoutMs the maximum number of milliseconds to wait for a connection
+    * @param executor the executor on which to complete the future, or null for the pool's own executor
+    * @return a future completed with a connection from the pool
+    */
+   public CompletableFuture<Connection> getConnectionAsync(final long timeoutMs, final Executor executor)
+   {
+      if (isClosed()) {
+         return CompletableFuture.failedFuture(new SQLException("HikariDataSource " + this + " has been closed."));
+      }
+
+      try {
+         final var pool = fastPathPool != null ? fastPathPool : startPool();
+         return executor != null ? pool.getConnectionAsync(timeoutMs, executor) : pool.getConnectionAsync(timeoutMs);
+      }
+      catch (SQLException e) {
+         return CompletableFuture.failedFuture(e);
+      }
+   }
+
+   /**
+    * Get a stage that completes once the initial fill of the pool is complete, that is, once the pool has
+    * opened {@code minimumIdle} connections.  Readiness probes and warm-up logic can use this instead of
+    * blocking pool startup with {@link HikariConfig#setBlockUntilFilled(boolean)}.  The stage fails if the
+    * pool cannot be started, or if it is closed before it is filled.  If this DataSource was created with the
+    * default constructor, calling this method starts the pool.
+    *
+    * @return a stage that completes when the pool is ready
+    */
+   public CompletionStage<Void> whenReady()
+   {
+      if (isClosed()) {
+         return CompletableFuture.failedStage(new SQLException("HikariDataSource " + this + " has been closed."));
+      }
+
+      try {
+         return (fastPathPool != null ? fastPathPool : startPool()).whenReady();
+      }
+      catch (SQLException e) {
+         return CompletableFuture.failedStage(e);
+      }
+   }
+
+   /**
+    * Wait for the initial fill of the pool to complete, that is, for the pool to open {@code minimumIdle}
+    * connections.  If this DataSource was created with the default constructor, calling this method starts
+    * the pool.
+    *
+    * @param timeout the maximum time to wait
+    * @param unit the unit of the timeout
+    * @return true if the pool is ready, false if the timeout elapsed first or the pool was closed
+    * @throws SQLException if this DataSource has been closed, or the pool could not be started
+    * @throws InterruptedException if interrupted while waiting
+    */
+   public boolean awaitReady(final long timeout, final TimeUnit unit) throws SQLException, InterruptedException
+   {
+      if (isClosed()) {
+         throw new SQLException("HikariDataSource " + this + " has been closed.");
+      }
+
+      return (fastPathPool != null ? fastPathPool : startPool()).awaitReady(unit.toMillis(timeout));
+   }
+
+   private HikariPool startPool() throws SQLException
+   {
       // See http://en.wikipedia.org/wiki/Double-checked_locking#Usage_in_Java
       HikariPool result = pool;
       if (result == null) {
@@ -124,7 +274,7 @@ public class HikariDataSource extends HikariConfig implements DataSource, Closea
          }
       }
 
-      return result.getConnection();
+      return result;
    }
 
    /** {@inheritDoc} */
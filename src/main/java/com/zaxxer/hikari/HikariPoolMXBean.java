@@ -65,9 +65,62 @@ public interface HikariPoolMXBean
     */
    int getThreadsAwaitingConnection();
 
+   /**
+    * Get the current limit on the total number of connections in the pool.  This is the configured maximum pool
+    * size, unless {@link HikariConfig#setAdaptivePoolSizing(boolean)} is enabled, in which case it moves between
+    * the configured minimum adaptive pool size and the maximum pool size as the load on the database changes.
+    *
+    * @return the current limit on the total number of connections in the pool
+    */
+   int getEffectiveMaximumPoolSize();
+
+   /**
+    * Determine whether the initial fill of the pool is complete, that is, whether the pool has opened
+    * {@code minimumIdle} connections since it was started.
+    *
+    * @return true if the pool is ready, false if it is still filling or has been shutdown before it was filled
+    */
+   boolean isReady();
+
+   /**
+    * Get the progress of the initial fill of the pool, as a percentage of {@code minimumIdle}.
+    *
+    * @return the percentage of the initial fill completed, 100 once the pool is ready
+    */
+   int getFillProgress();
+
+   /**
+    * Get the state of the circuit breaker over connection creation: {@code CLOSED}, {@code OPEN} while requests
+    * that find no idle connection fail fast, or {@code HALF_OPEN} while the pool probes whether the database is
+    * reachable again.
+    *
+    * @return the state of the circuit breaker, or null if {@link HikariConfig#setCircuitBreakerThreshold(int)} is not set
+    */
+   String getCircuitBreakerState();
+
+   /**
+    * Export the demand profile learned by predictive pre-warming, so that it can be restored with
+    * {@link #setDemandProfile(String)} or {@link HikariConfig#setDemandProfile(String)} after a restart.
+    *
+    * @return the demand profile, or null if {@link HikariConfig#setPredictivePrewarming(boolean)} is not enabled
+    */
+   String getDemandProfile();
+
+   /**
+    * Import a demand profile previously exported with {@link #getDemandProfile()}, replacing the profile
+    * learned so far.
+    *
+    * @param profile the demand profile
+    * @throws IllegalArgumentException if the profile is malformed
+    * @throws IllegalStateException if {@link HikariConfig#setPredictivePrewarming(boolean)} is not enabled
+    */
+   void setDemandProfile(String profile);
+
    /**
     * Evict currently idle connections from the pool, and mark active (in-use) connections for eviction when they are
-    * returned to the pool.
+    * returned to the pool.  If {@link HikariConfig#setSoftEvictionWindow(long)} is set, the evictions are spread
+    * evenly over that window, and if {@link HikariConfig#setMaxConcurrentRetirements(int)} is set, each connection
+    * is replaced before it is evicted.
     */
    void softEvictConnections();
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari;
+
+/**
+ * The priority class of a connection request.  When the pool is saturated, a connection that is
+ * returned to the pool is handed to a waiting request of the highest priority class, so that, for
+ * example, user-facing requests are not queued behind batch jobs.  A lower class that has been
+ * passed over {@link HikariConfig#getPriorityStarvationLimit()} times in a row receives the next
+ * connection regardless, so that it is never starved entirely.
+ * <p>
+ * A priority can be given per request, with {@link HikariDataSource#getConnection(Priority)}, or for
+ * all requests made by the current thread, with {@link #setCurrent(Priority)}:
+ *
+ * <blockquote><pre>
+ *     Priority previous = Priority.setCurrent(Priority.LOW);
+ *     try {
+ *        runReport(dataSource);
+ *     }
+ *     finally {
+ *        Priority.setCurrent(previous);
+ *     }
+ * </pre></blockquote>
+ */
+public enum Priority
+{
+   HIGH,
+   NORMAL,
+   LOW;
+
+   private static final ThreadLocal<Priority> CURRENT = new ThreadLocal<>();
+
+   /**
+    * Get the priority of connection requests made by the current thread that do not specify one.
+    *
+    * @return the priority of the current thread, {@link #NORMAL} unless set otherwise
+    */
+   public static Priority current()
+   {
+      final var priority = CURRENT.get();
+      return priority != null ? priority : NORMAL;
+   }
+
+   /**
+    * Set the priority of connection requests made by the current thread that do not specify one.
+    *
+    * @param priority the new priority of the current thread, or null to restore {@link #NORMAL}
+    * @return the previous priority of the current thread
+    */
+   public static Priority setCurrent(final Priority priority)
+   {
+      final var previous = current();
+      if (priority == null || priority == NORMAL) {
+         CURRENT.remove();
+      }
+      else {
+         CURRENT.set(priority);
+      }
+      return previous;
+   }
+}
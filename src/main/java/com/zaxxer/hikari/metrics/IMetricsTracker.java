@@ -16,6 +16,8 @@
 
 package com.zaxxer.hikari.metrics;
 
+import com.zaxxer.hikari.Priority;
+
 /**
  * @author Brett Wooldridge
  */
@@ -25,10 +27,64 @@ public interface IMetricsTracker extends AutoCloseable
 
    default void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {}
 
+   /**
+    * Record the time taken to acquire a connection on behalf of a request of the given priority class.
+    * By default, the time is recorded without regard to the priority.
+    *
+    * @param elapsedAcquiredNanos the time taken to acquire the connection
+    * @param priority the priority class of the request
+    */
+   default void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos, final Priority priority)
+   {
+      recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+   }
+
    default void recordConnectionUsageMillis(final long elapsedBorrowedMillis) {}
 
    default void recordConnectionTimeout() {}
 
+   /**
+    * Record a request that was rejected by admission control or the circuit breaker, rather than left to wait for a
+    * connection.
+    */
+   default void recordConnectionRejected() {}
+
+   /**
+    * Record an attempt to open a connection that was delayed by the connection creation rate limit.
+    */
+   default void recordConnectionCreationThrottled() {}
+
+   /**
+    * Record the round trip time of a successful keepalive of an idle connection.
+    *
+    * @param elapsedNanos the time taken to validate the connection
+    */
+   default void recordKeepaliveNanos(final long elapsedNanos) {}
+
+   /**
+    * Record the time taken to acquire a connection through a lane of the pool.  This is recorded in
+    * addition to the acquisition time of the pool as a whole.
+    *
+    * @param lane the name of the lane
+    * @param elapsedAcquiredNanos the time taken to acquire the connection, including the wait for the lane
+    */
+   default void recordLaneConnectionAcquiredNanos(final String lane, final long elapsedAcquiredNanos) {}
+
+   /**
+    * Record a request that timed out waiting for the quota of a lane of the pool.
+    *
+    * @param lane the name of the lane
+    */
+   default void recordLaneConnectionTimeout(final String lane) {}
+
+   /**
+    * Record whether a request for a connection of a given state received an idle connection that already had that
+    * state (a hit), or one on which some of it had to be set (a miss).
+    *
+    * @param hit true if the connection already had the state
+    */
+   default void recordConnectionStateAffinity(final boolean hit) {}
+
    @Override
    default void close() {}
 }
@@ -16,6 +16,7 @@
 
 package com.zaxxer.hikari.metrics.micrometer;
 
+import com.zaxxer.hikari.Priority;
 import com.zaxxer.hikari.metrics.IMetricsTracker;
 import com.zaxxer.hikari.metrics.PoolStats;
 import io.micrometer.core.instrument.Counter;
@@ -23,6 +24,9 @@ import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,10 +58,20 @@ public class MicrometerMetricsTracker implements IMetricsTracker
 
    private static final String METRIC_CATEGORY = "pool";
    private static final String METRIC_NAME_WAIT = HIKARI_METRIC_NAME_PREFIX + ".connections.acquire";
+   private static final String METRIC_NAME_PRIORITY_WAIT = HIKARI_METRIC_NAME_PREFIX + ".connections.acquire.priority";
+   private static final String METRIC_TAG_PRIORITY = "priority";
+   private static final String METRIC_NAME_LANE_WAIT = HIKARI_METRIC_NAME_PREFIX + ".connections.acquire.lane";
+   private static final String METRIC_NAME_LANE_TIMEOUT_RATE = HIKARI_METRIC_NAME_PREFIX + ".connections.timeout.lane";
+   private static final String METRIC_TAG_LANE = "lane";
    private static final String METRIC_NAME_USAGE = HIKARI_METRIC_NAME_PREFIX + ".connections.usage";
    private static final String METRIC_NAME_CONNECT = HIKARI_METRIC_NAME_PREFIX + ".connections.creation";
+   private static final String METRIC_NAME_KEEPALIVE = HIKARI_METRIC_NAME_PREFIX + ".connections.keepalive";
 
    private static final String METRIC_NAME_TIMEOUT_RATE = HIKARI_METRIC_NAME_PREFIX + ".connections.timeout";
+   private static final String METRIC_NAME_REJECTED = HIKARI_METRIC_NAME_PREFIX + ".connections.rejected";
+   private static final String METRIC_NAME_THROTTLED = HIKARI_METRIC_NAME_PREFIX + ".connections.creation.throttled";
+   private static final String METRIC_NAME_AFFINITY_HIT = HIKARI_METRIC_NAME_PREFIX + ".connections.affinity.hit";
+   private static final String METRIC_NAME_AFFINITY_MISS = HIKARI_METRIC_NAME_PREFIX + ".connections.affinity.miss";
    private static final String METRIC_NAME_TOTAL_CONNECTIONS = HIKARI_METRIC_NAME_PREFIX + ".connections";
    private static final String METRIC_NAME_IDLE_CONNECTIONS = HIKARI_METRIC_NAME_PREFIX + ".connections.idle";
    private static final String METRIC_NAME_ACTIVE_CONNECTIONS = HIKARI_METRIC_NAME_PREFIX + ".connections.active";
@@ -66,9 +80,17 @@ public class MicrometerMetricsTracker implements IMetricsTracker
    private static final String METRIC_NAME_MIN_CONNECTIONS = HIKARI_METRIC_NAME_PREFIX + ".connections.min";
 
    private final Timer connectionObtainTimer;
+   private final Timer[] priorityObtainTimers;
+   private final Map<String, Timer> laneObtainTimers = new ConcurrentHashMap<>();
+   private final Map<String, Counter> laneTimeoutCounters = new ConcurrentHashMap<>();
    private final Counter connectionTimeoutCounter;
+   private final Counter connectionRejectedCounter;
+   private final Counter connectionThrottledCounter;
+   private final Counter affinityHitCounter;
+   private final Counter affinityMissCounter;
    private final Timer connectionUsage;
    private final Timer connectionCreation;
+   private final Timer connectionKeepalive;
    @SuppressWarnings("FieldCanBeLocal")
    private final Gauge totalConnectionGauge;
    @SuppressWarnings("FieldCanBeLocal")
@@ -85,6 +107,7 @@ public class MicrometerMetricsTracker implements IMetricsTracker
    private final MeterRegistry meterRegistry;
    @SuppressWarnings("FieldCanBeLocal")
    private final PoolStats poolStats;
+   private final String poolName;
 
 
    MicrometerMetricsTracker(final String poolName, final PoolStats poolStats, final MeterRegistry meterRegistry)
@@ -93,17 +116,31 @@ public class MicrometerMetricsTracker implements IMetricsTracker
       this.poolStats = poolStats;  // DO NOT REMOVE
 
       this.meterRegistry = meterRegistry;
+      this.poolName = poolName;
 
       this.connectionObtainTimer = Timer.builder(METRIC_NAME_WAIT)
          .description("Connection acquire time")
          .tags(METRIC_CATEGORY, poolName)
          .register(meterRegistry);
 
+      this.priorityObtainTimers = new Timer[Priority.values().length];
+      for (var priority : Priority.values()) {
+         this.priorityObtainTimers[priority.ordinal()] = Timer.builder(METRIC_NAME_PRIORITY_WAIT)
+            .description("Connection acquire time by request priority")
+            .tags(METRIC_CATEGORY, poolName, METRIC_TAG_PRIORITY, priority.name().toLowerCase(Locale.ENGLISH))
+            .register(meterRegistry);
+      }
+
       this.connectionCreation = Timer.builder(METRIC_NAME_CONNECT)
          .description("Connection creation time")
          .tags(METRIC_CATEGORY, poolName)
          .register(meterRegistry);
 
+      this.connectionKeepalive = Timer.builder(METRIC_NAME_KEEPALIVE)
+         .description("Connection keepalive round trip time")
+         .tags(METRIC_CATEGORY, poolName)
+         .register(meterRegistry);
+
       this.connectionUsage = Timer.builder(METRIC_NAME_USAGE)
          .description("Connection usage time")
          .tags(METRIC_CATEGORY, poolName)
@@ -114,6 +151,26 @@ public class MicrometerMetricsTracker implements IMetricsTracker
          .tags(METRIC_CATEGORY, poolName)
          .register(meterRegistry);
 
+      this.connectionRejectedCounter = Counter.builder(METRIC_NAME_REJECTED)
+         .description("Connection requests rejected by admission control or the circuit breaker total count")
+         .tags(METRIC_CATEGORY, poolName)
+         .register(meterRegistry);
+
+      this.connectionThrottledCounter = Counter.builder(METRIC_NAME_THROTTLED)
+         .description("Connection creation attempts delayed by the creation rate limit total count")
+         .tags(METRIC_CATEGORY, poolName)
+         .register(meterRegistry);
+
+      this.affinityHitCounter = Counter.builder(METRIC_NAME_AFFINITY_HIT)
+         .description("Connection requests for a state served by a connection already in that state total count")
+         .tags(METRIC_CATEGORY, poolName)
+         .register(meterRegistry);
+
+      this.affinityMissCounter = Counter.builder(METRIC_NAME_AFFINITY_MISS)
+         .description("Connection requests for a state served by a connection on which the state was set total count")
+         .tags(METRIC_CATEGORY, poolName)
+         .register(meterRegistry);
+
       this.totalConnectionGauge = Gauge.builder(METRIC_NAME_TOTAL_CONNECTIONS, poolStats, PoolStats::getTotalConnections)
          .description("Total connections")
          .tags(METRIC_CATEGORY, poolName)
@@ -153,6 +210,14 @@ public class MicrometerMetricsTracker implements IMetricsTracker
       connectionObtainTimer.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
    }
 
+   /** {@inheritDoc} */
+   @Override
+   public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos, final Priority priority)
+   {
+      connectionObtainTimer.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+      priorityObtainTimers[priority.ordinal()].record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+   }
+
    /** {@inheritDoc} */
    @Override
    public void recordConnectionUsageMillis(final long elapsedBorrowedMillis)
@@ -166,6 +231,56 @@ public class MicrometerMetricsTracker implements IMetricsTracker
       connectionTimeoutCounter.increment();
    }
 
+   /** {@inheritDoc} */
+   @Override
+   public void recordConnectionRejected()
+   {
+      connectionRejectedCounter.increment();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void recordConnectionCreationThrottled()
+   {
+      connectionThrottledCounter.increment();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void recordConnectionStateAffinity(final boolean hit)
+   {
+      (hit ? affinityHitCounter : affinityMissCounter).increment();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void recordKeepaliveNanos(final long elapsedNanos)
+   {
+      connectionKeepalive.record(elapsedNanos, TimeUnit.NANOSECONDS);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void recordLaneConnectionAcquiredNanos(final String lane, final long elapsedAcquiredNanos)
+   {
+      laneObtainTimers.computeIfAbsent(lane, name -> Timer.builder(METRIC_NAME_LANE_WAIT)
+         .description("Connection acquire time by lane")
+         .tags(METRIC_CATEGORY, poolName, METRIC_TAG_LANE, name)
+         .register(meterRegistry))
+         .record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void recordLaneConnectionTimeout(final String lane)
+   {
+      laneTimeoutCounters.computeIfAbsent(lane, name -> Counter.builder(METRIC_NAME_LANE_TIMEOUT_RATE)
+         .description("Connection timeout total count by lane")
+         .tags(METRIC_CATEGORY, poolName, METRIC_TAG_LANE, name)
+         .register(meterRegistry))
+         .increment();
+   }
+
    @Override
    public void recordConnectionCreatedMillis(long connectionCreatedMillis)
    {
@@ -175,9 +290,19 @@ public class MicrometerMetricsTracker implements IMetricsTracker
    @Override
    public void close() {
       meterRegistry.remove(connectionObtainTimer);
+      for (var timer : priorityObtainTimers) {
+         meterRegistry.remove(timer);
+      }
+      laneObtainTimers.values().forEach(meterRegistry::remove);
+      laneTimeoutCounters.values().forEach(meterRegistry::remove);
       meterRegistry.remove(connectionTimeoutCounter);
+      meterRegistry.remove(connectionRejectedCounter);
+      meterRegistry.remove(connectionThrottledCounter);
+      meterRegistry.remove(affinityHitCounter);
+      meterRegistry.remove(affinityMissCounter);
       meterRegistry.remove(connectionUsage);
       meterRegistry.remove(connectionCreation);
+      meterRegistry.remove(connectionKeepalive);
       meterRegistry.remove(totalConnectionGauge);
       meterRegistry.remove(idleConnectionGauge);
       meterRegistry.remove(activeConnectionGauge);
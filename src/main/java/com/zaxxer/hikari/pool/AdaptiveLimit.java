@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A latency-gradient concurrency limit on the size of a pool.  The time connections are held by
+ * borrowers is taken as the latency of the database: while the pool is the bottleneck, that is,
+ * while requests wait for connections, the limit grows by the square root of itself each period,
+ * and once the latency rises past a tolerance over its baseline, the limit is scaled down in
+ * proportion.  The limit therefore settles where adding connections no longer adds throughput, only
+ * latency.
+ * <p>
+ * The baseline is the lowest latency observed while there was demand, and is re-learned from any
+ * period without demand, since the database may have become faster or slower for reasons of its own.
+ * <p>
+ * Borrowers only increment counters; {@link #update(int)} is called periodically, from one thread.
+ */
+final class AdaptiveLimit
+{
+   // latency may rise this far over its baseline before the limit is reduced
+   static final double TOLERANCE = 1.5d;
+
+   // the limit is reduced by at most half in one step
+   private static final double MIN_GRADIENT = 0.5d;
+
+   // reductions are smoothed, so that one slow period does not collapse the limit
+   private static final double SMOOTHING = 0.2d;
+
+   // an acquisition that takes longer than this had to wait for a connection
+   private static final long DEMAND_THRESHOLD_NANOS = MILLISECONDS.toNanos(1);
+
+   private final int floor;
+   private final int ceiling;
+
+   private final LongAdder usageNanos;
+   private final LongAdder usageCount;
+   private final LongAdder delayedAcquisitions;
+
+   private double limit;
+   private double baseline;
+   private volatile int currentLimit;
+
+   /**
+    * Construct an adaptive limit, initially at its floor.
+    *
+    * @param floor the lowest value of the limit
+    * @param ceiling the highest value of the limit
+    */
+   AdaptiveLimit(final int floor, final int ceiling)
+   {
+      this.floor = floor;
+      this.ceiling = ceiling;
+      this.usageNanos = new LongAdder();
+      this.usageCount = new LongAdder();
+      this.delayedAcquisitions = new LongAdder();
+      this.limit = floor;
+      this.baseline = Double.NaN;
+      this.currentLimit = floor;
+   }
+
+   /**
+    * Get the current limit.
+    *
+    * @return the current limit on the size of the pool
+    */
+   int getLimit()
+   {
+      return currentLimit;
+   }
+
+   /**
+    * Record the time a connection was held by a borrower.
+    *
+    * @param elapsedNanos the time from borrow to return
+    */
+   void recordUsage(final long elapsedNanos)
+   {
+      usageNanos.add(elapsedNanos);
+      usageCount.increment();
+   }
+
+   /**
+    * Record the time a borrower took to acquire a connection.
+    *
+    * @param elapsedNanos the time from request to acquisition
+    */
+   void recordAcquisition(final long elapsedNanos)
+   {
+      if (elapsedNanos > DEMAND_THRESHOLD_NANOS) {
+         delayedAcquisitions.increment();
+      }
+   }
+
+   /**
+    * Adjust the limit from what was recorded since the previous update.  The limit is left unchanged if no
+    * connection was returned to the pool during the period.
+    *
+    * @param waiting the number of requests currently waiting for a connection
+    * @return the new limit
+    */
+   int update(final int waiting)
+   {
+      final var count = usageCount.sumThenReset();
+      final var nanos = usageNanos.sumThenReset();
+      final var isDemand = delayedAcquisitions.sumThenReset() > 0 || waiting > 0;
+      if (count == 0) {
+         return currentLimit;
+      }
+
+      return update((double) nanos / count, isDemand);
+   }
+
+   /**
+    * Adjust the limit for one period.
+    *
+    * @param latency the mean time connections were held during the period
+    * @param isDemand true if requests had to wait for connections during the period
+    * @return the new limit
+    */
+   int update(final double latency, final boolean isDemand)
+   {
+      baseline = (Double.isNaN(baseline) || !isDemand) ? latency : Math.min(baseline, latency);
+
+      final var gradient = Math.max(MIN_GRADIENT, Math.min(1.0d, TOLERANCE * baseline / latency));
+      var newLimit = limit * gradient + (isDemand ? Math.sqrt(limit) : 0.0d);
+      if (newLimit < limit) {
+         newLimit = limit * (1.0d - SMOOTHING) + newLimit * SMOOTHING;
+      }
+
+      limit = Math.max(floor, Math.min(ceiling, newLimit));
+      currentLimit = (int) limit;
+      return currentLimit;
+   }
+}
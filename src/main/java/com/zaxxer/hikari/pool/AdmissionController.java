@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.zaxxer.hikari.util.ClockSource.currentTime;
+import static com.zaxxer.hikari.util.ClockSource.elapsedNanos;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Decides, before a request joins the queue of waiters of a saturated pool, whether it should be
+ * rejected at once rather than left to block until its timeout.  A request is rejected if the number
+ * of waiters has reached a hard cap, or if, at the rate connections have recently been returned to the
+ * pool, the connection it would eventually receive is not expected to come back before its timeout.
+ * <p>
+ * Returning a connection only increments a counter; the return rate is sampled from it, at most once
+ * per sample period, by the requests that find the pool saturated.
+ */
+final class AdmissionController
+{
+   static final long SAMPLE_PERIOD_NANOS = MILLISECONDS.toNanos(100);
+
+   // a sample spanning more than this many periods is discarded; the pool was not saturated in between,
+   // so the returns it counted say nothing about the rate at which connections are returned under load
+   private static final long MAX_SAMPLE_PERIODS = 10;
+
+   // weight of the most recent sample in the moving average of the return rate
+   private static final double ALPHA = 0.5;
+
+   private final boolean isPredictive;
+   private final int maxWaiters;
+
+   private final LongAdder returns;
+   private final AtomicLong sampleStart;
+   private volatile double returnsPerNano;
+
+   /**
+    * Construct an admission controller.
+    *
+    * @param isPredictive true to reject requests whose predicted wait exceeds their timeout
+    * @param maxWaiters the maximum number of waiters, or 0 for no limit
+    */
+   AdmissionController(final boolean isPredictive, final int maxWaiters)
+   {
+      this.isPredictive = isPredictive;
+      this.maxWaiters = maxWaiters;
+      this.returns = new LongAdder();
+      this.sampleStart = new AtomicLong(currentTime());
+   }
+
+   /**
+    * Record that a connection was returned to the pool.
+    */
+   void recordReturn()
+   {
+      returns.increment();
+   }
+
+   /**
+    * Determine whether a request may wait for a connection.  Only called when the request has found
+    * other requests already waiting.
+    *
+    * @param waiting the number of requests already waiting, including those still scanning for an idle connection
+    * @param isExhausted true if the pool has no idle connections, so that the request will have to wait
+    * @param isSaturated true if the pool has no idle connections and cannot grow
+    * @param remainingMs the time the request has left before its timeout, in milliseconds
+    * @return null if the request is admitted, otherwise the reason it is rejected
+    */
+   String checkAdmission(final int waiting, final boolean isExhausted, final boolean isSaturated, final long remainingMs)
+   {
+      if (maxWaiters > 0 && isExhausted && waiting >= maxWaiters) {
+         return waiting + " requests are already waiting (maximumWaiters=" + maxWaiters + ")";
+      }
+
+      if (isPredictive && isSaturated) {
+         final var rate = sampleReturnRate();
+         if (rate > 0.0d) {
+            final var predictedMs = NANOSECONDS.toMillis((long) ((waiting + 1) / rate));
+            if (predictedMs > remainingMs) {
+               return "predicted wait of " + predictedMs + "ms exceeds the remaining timeout of " + remainingMs + "ms";
+            }
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Get the recent rate at which connections are returned to the pool, taking a new sample first if the
+    * current sample period has ended.
+    *
+    * @return returned connections per nanosecond, or 0 if not yet known
+    */
+   double sampleReturnRate()
+   {
+      final var start = sampleStart.get();
+      final var elapsed = elapsedNanos(start);
+      if (elapsed >= SAMPLE_PERIOD_NANOS && sampleStart.compareAndSet(start, currentTime())) {
+         final var count = returns.sumThenReset();
+         if (elapsed > SAMPLE_PERIOD_NANOS * MAX_SAMPLE_PERIODS) {
+            returnsPerNano = 0.0d;
+         }
+         else {
+            final var sample = (double) count / elapsed;
+            final var average = returnsPerNano;
+            returnsPerNano = (average == 0.0d ? sample : average + ALPHA * (sample - average));
+         }
+      }
+
+      return returnsPerNano;
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.zaxxer.hikari.util.ClockSource.currentTime;
+import static com.zaxxer.hikari.util.ClockSource.elapsedMillis;
+
+/**
+ * A circuit breaker over the creation of connections.  After a number of consecutive failures to open a
+ * connection, the circuit opens, and requests that find no idle connection fail at once, rather than
+ * each waiting out {@code connectionTimeout} for a database that is unreachable.  The pool keeps trying
+ * to open connections in the background while the circuit is open, and the first of them to succeed
+ * closes the circuit.
+ * <p>
+ * Once the circuit has been open for a while without a failed attempt, it becomes half-open: a single
+ * trial request waits for a connection as usual, which starts a creation attempt even if the pool has no
+ * minimum idle to maintain, and other requests are still rejected.  If that attempt fails, the circuit opens
+ * again.  If neither outcome is recorded within the trial timeout, typically because the trial request was
+ * served by a returned connection, another request is admitted as the trial.
+ * <p>
+ * The state is held in an immutable {@link Circuit}, replaced by compare-and-set, so that neither borrowers
+ * nor the connection creators ever block on the breaker.
+ */
+final class CircuitBreaker
+{
+   enum State
+   {
+      CLOSED,
+      OPEN,
+      HALF_OPEN
+   }
+
+   private static final Circuit CLOSED_CIRCUIT = new Circuit(State.CLOSED, 0, 0L, 0L);
+
+   private final int threshold;
+   private final long openMs;
+   private final long trialTimeoutMs;
+   private final AtomicReference<Circuit> circuit;
+
+   /**
+    * Construct a circuit breaker.
+    *
+    * @param threshold the number of consecutive failures that opens the circuit
+    * @param openMs the time the circuit stays open before it becomes half-open, in milliseconds
+    * @param trialTimeoutMs the time after which a half-open circuit admits another trial request, in milliseconds
+    */
+   CircuitBreaker(final int threshold, final long openMs, final long trialTimeoutMs)
+   {
+      this.threshold = threshold;
+      this.openMs = openMs;
+      this.trialTimeoutMs = trialTimeoutMs;
+      this.circuit = new AtomicReference<>(CLOSED_CIRCUIT);
+   }
+
+   /**
+    * Determine whether a request that finds no idle connection may wait for one.  While the circuit is
+    * half-open, only the trial request may.
+    *
+    * @return true if the circuit is closed or the request is admitted as the trial, false otherwise
+    */
+   boolean allowRequest()
+   {
+      while (true) {
+         final var current = circuit.get();
+         switch (current.state) {
+            case CLOSED:
+               return true;
+            case OPEN:
+               if (elapsedMillis(current.openedAt) < openMs) {
+                  return false;
+               }
+               break;
+            default:
+               if (elapsedMillis(current.trialStartedAt) < trialTimeoutMs) {
+                  return false;
+               }
+         }
+
+         if (circuit.compareAndSet(current, new Circuit(State.HALF_OPEN, current.failures, current.openedAt, currentTime()))) {
+            return true;
+         }
+      }
+   }
+
+   /**
+    * Record a failure to open a connection.  A failure while the circuit is open restarts the open period,
+    * so the circuit only becomes half-open once the pool has stopped trying to open connections by itself.
+    *
+    * @return true if the failure opened the circuit
+    */
+   boolean recordFailure()
+   {
+      while (true) {
+         final var current = circuit.get();
+         final var failures = current.failures + 1;
+         final var next = current.state == State.CLOSED && failures < threshold
+                          ? new Circuit(State.CLOSED, failures, 0L, 0L)
+                          : new Circuit(State.OPEN, failures, currentTime(), 0L);
+         if (circuit.compareAndSet(current, next)) {
+            return next.state == State.OPEN && current.state != State.OPEN;
+         }
+      }
+   }
+
+   /**
+    * Record the successful opening of a connection.
+    *
+    * @return true if the success closed the circuit
+    */
+   boolean recordSuccess()
+   {
+      if (circuit.get() == CLOSED_CIRCUIT) {
+         return false;
+      }
+
+      return circuit.getAndSet(CLOSED_CIRCUIT).state != State.CLOSED;
+   }
+
+   /**
+    * Get the state of the circuit.
+    *
+    * @return the state of the circuit
+    */
+   State getState()
+   {
+      return circuit.get().state;
+   }
+
+   /**
+    * Get the number of consecutive failures to open a connection.
+    *
+    * @return the number of consecutive failures
+    */
+   int getFailures()
+   {
+      return circuit.get().failures;
+   }
+
+   /**
+    * Get the time since the circuit opened, or since its open period was last restarted by a failure.
+    *
+    * @return the time since the last failure of the open circuit, in milliseconds
+    */
+   long getMillisSinceFailure()
+   {
+      return elapsedMillis(circuit.get().openedAt);
+   }
+
+   /**
+    * An immutable state of the circuit.
+    */
+   private static final class Circuit
+   {
+      private final State state;
+      private final int failures;
+      private final long openedAt;
+      private final long trialStartedAt;
+
+      Circuit(final State state, final int failures, final long openedAt, final long trialStartedAt)
+      {
+         this.state = state;
+         this.failures = failures;
+         this.openedAt = openedAt;
+         this.trialStartedAt = trialStartedAt;
+      }
+   }
+}
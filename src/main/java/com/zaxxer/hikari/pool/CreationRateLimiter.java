@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.util.ClockSource.currentTime;
+import static com.zaxxer.hikari.util.ClockSource.elapsedNanos;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A token bucket limiting the rate at which connections are opened.  The bucket holds up to one
+ * second's worth of permits, so that a pool can open a burst of that many connections at once, but
+ * not sustain more than the configured rate while the database is recovering from a restart, when
+ * every pool in the fleet is trying to reconnect at the same time.
+ * <p>
+ * A limiter may be shared by all of the pools in the JVM, so that the rate applies to the JVM as a
+ * whole, rather than to each of its pools.
+ */
+final class CreationRateLimiter
+{
+   private static CreationRateLimiter shared;
+
+   private final int permitsPerSecond;
+   private final long nanosPerPermit;
+   private double permits;
+   private long lastRefill;
+
+   /**
+    * Construct a rate limiter.
+    *
+    * @param permitsPerSecond the maximum number of connections opened per second
+    */
+   CreationRateLimiter(final int permitsPerSecond)
+   {
+      this.permitsPerSecond = permitsPerSecond;
+      this.nanosPerPermit = SECONDS.toNanos(1) / permitsPerSecond;
+      this.permits = permitsPerSecond;
+      this.lastRefill = currentTime();
+   }
+
+   /**
+    * Get the rate limiter shared by all of the pools in the JVM, creating it with the specified rate
+    * if this is the first pool to use it.
+    *
+    * @param permitsPerSecond the maximum number of connections opened per second, if the limiter is created
+    * @return the shared rate limiter
+    */
+   static synchronized CreationRateLimiter shared(final int permitsPerSecond)
+   {
+      if (shared == null) {
+         shared = new CreationRateLimiter(permitsPerSecond);
+      }
+      return shared;
+   }
+
+   /**
+    * Get the maximum number of connections opened per second.
+    *
+    * @return the rate of the limiter
+    */
+   int getPermitsPerSecond()
+   {
+      return permitsPerSecond;
+   }
+
+   /**
+    * Take a permit to open a connection, if one is available.
+    *
+    * @return 0 if a permit was taken, otherwise the number of nanoseconds until one is available
+    */
+   synchronized long tryAcquire()
+   {
+      final var now = currentTime();
+      permits = Math.min(permitsPerSecond, permits + (double) elapsedNanos(lastRefill, now) / nanosPerPermit);
+      lastRefill = now;
+
+      if (permits >= 1.0d) {
+         permits -= 1.0d;
+         return 0L;
+      }
+      return (long) Math.ceil((1.0d - permits) * nanosPerPermit);
+   }
+}
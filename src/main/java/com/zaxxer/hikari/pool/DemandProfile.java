@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * A profile of the demand for connections over the week, in 15 minute buckets.  Each bucket holds a
+ * moving average, across weeks, of the peak demand observed during that quarter hour, so that the pool
+ * can open connections ahead of a ramp that recurs at the same time every day or week, rather than
+ * while requests are already waiting.
+ * <p>
+ * The profile is exported and imported as a comma-separated list of the buckets, starting at midnight
+ * on Monday, with an empty value for a bucket that has not yet been observed.
+ */
+final class DemandProfile
+{
+   static final int BUCKET_MINUTES = 15;
+   static final int BUCKETS = 7 * 24 * 60 / BUCKET_MINUTES;
+
+   // weight of the most recent week in the moving average of a bucket
+   private static final double ALPHA = 0.3d;
+
+   private final double[] buckets;
+   private int currentBucket;
+   private int currentPeak;
+
+   DemandProfile()
+   {
+      this.buckets = new double[BUCKETS];
+      this.currentBucket = -1;
+      Arrays.fill(buckets, Double.NaN);
+   }
+
+   /**
+    * Get the minute of the week of the specified time, counting from midnight on Monday.
+    *
+    * @param time a time
+    * @return the minute of the week
+    */
+   static int minuteOfWeek(final ZonedDateTime time)
+   {
+      return (time.getDayOfWeek().getValue() - 1) * 24 * 60 + time.getHour() * 60 + time.getMinute();
+   }
+
+   /**
+    * Record a sample of the current demand.  When the sample falls into a new bucket, the peak of the
+    * previous bucket is folded into the profile.
+    *
+    * @param demand the number of connections in use plus the number of requests waiting for one
+    * @param minuteOfWeek the minute of the week at which the sample was taken
+    */
+   synchronized void sample(final int demand, final int minuteOfWeek)
+   {
+      final var bucket = minuteOfWeek / BUCKET_MINUTES;
+      if (bucket != currentBucket) {
+         if (currentBucket >= 0) {
+            final var average = buckets[currentBucket];
+            buckets[currentBucket] = Double.isNaN(average) ? currentPeak : average + ALPHA * (currentPeak - average);
+         }
+         currentBucket = bucket;
+         currentPeak = 0;
+      }
+
+      currentPeak = Math.max(currentPeak, demand);
+   }
+
+   /**
+    * Predict the demand over the remainder of the current bucket and the next one, so that connections
+    * are opened up to a quarter hour ahead of a ramp.
+    *
+    * @param minuteOfWeek the current minute of the week
+    * @return the predicted demand, or 0 if neither bucket has been observed
+    */
+   synchronized int predict(final int minuteOfWeek)
+   {
+      final var bucket = minuteOfWeek / BUCKET_MINUTES;
+      final var current = buckets[bucket];
+      final var next = buckets[(bucket + 1) % BUCKETS];
+      return (int) Math.ceil(Math.max(Double.isNaN(current) ? 0.0d : current, Double.isNaN(next) ? 0.0d : next));
+   }
+
+   /**
+    * Export the profile.
+    *
+    * @return the profile as a comma-separated list of buckets
+    */
+   synchronized String export()
+   {
+      final var sb = new StringBuilder(BUCKETS * 3);
+      for (var i = 0; i < BUCKETS; i++) {
+         if (i > 0) {
+            sb.append(',');
+         }
+         if (!Double.isNaN(buckets[i])) {
+            sb.append(Math.round(buckets[i] * 10.0d) / 10.0d);
+         }
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Import a profile previously exported with {@link #export()}, replacing the current one.
+    *
+    * @param profile the profile as a comma-separated list of buckets
+    * @throws IllegalArgumentException if the profile is malformed
+    */
+   synchronized void load(final String profile)
+   {
+      final var values = profile.split(",", -1);
+      if (values.length != BUCKETS) {
+         throw new IllegalArgumentException("demand profile must have " + BUCKETS + " buckets, but has " + values.length);
+      }
+
+      final var loaded = new double[BUCKETS];
+      for (var i = 0; i < BUCKETS; i++) {
+         final var value = values[i].trim();
+         try {
+            loaded[i] = value.isEmpty() ? Double.NaN : Double.parseDouble(value);
+         }
+         catch (NumberFormatException e) {
+            throw new IllegalArgumentException("demand profile bucket " + i + " is not a number: " + value);
+         }
+         if (loaded[i] < 0.0d) {
+            throw new IllegalArgumentException("demand profile bucket " + i + " is negative: " + value);
+         }
+      }
+
+      System.arraycopy(loaded, 0, buckets, 0, BUCKETS);
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.util.ClockSource.currentTime;
+import static com.zaxxer.hikari.util.ClockSource.elapsedMillis;
+
+/**
+ * Tracks the peak concurrent demand for connections over a sliding window.  The window is divided
+ * into buckets, each holding the peak of the samples taken while it was current, so that the peak
+ * of a burst is forgotten gradually, one bucket at a time, once the burst is older than the window.
+ * <p>
+ * Demand is sampled periodically, so a sub-second spike between samples may be missed; as the peak
+ * is only used to decide how many idle connections to keep, that is of little consequence.
+ */
+final class DemandTracker
+{
+   private static final int BUCKETS = 10;
+
+   private final long bucketMs;
+   private final int[] peaks;
+   private int bucket;
+   private long bucketStart;
+
+   /**
+    * Construct a demand tracker.
+    *
+    * @param windowMs the length of the window, in milliseconds
+    */
+   DemandTracker(final long windowMs)
+   {
+      this.bucketMs = Math.max(1L, windowMs / BUCKETS);
+      this.peaks = new int[BUCKETS];
+      this.bucketStart = currentTime();
+   }
+
+   /**
+    * Record a sample of the current demand.
+    *
+    * @param demand the number of connections in use plus the number of requests waiting for one
+    */
+   synchronized void sample(final int demand)
+   {
+      advance();
+      peaks[bucket] = Math.max(peaks[bucket], demand);
+   }
+
+   /**
+    * Get the peak demand over the window.
+    *
+    * @return the highest demand sampled within the window
+    */
+   synchronized int getPeak()
+   {
+      advance();
+      var peak = 0;
+      for (var p : peaks) {
+         peak = Math.max(peak, p);
+      }
+      return peak;
+   }
+
+   private void advance()
+   {
+      final var elapsedBuckets = elapsedMillis(bucketStart) / bucketMs;
+      if (elapsedBuckets > 0) {
+         for (var i = 0; i < Math.min(elapsedBuckets, BUCKETS); i++) {
+            bucket = (bucket + 1) % BUCKETS;
+            peaks[bucket] = 0;
+         }
+         bucketStart = currentTime();
+      }
+   }
+}
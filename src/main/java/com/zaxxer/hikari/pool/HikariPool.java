@@ -18,8 +18,10 @@ package com.zaxxer.hikari.pool;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheckRegistry;
+import com.zaxxer.hikari.ConnectionState;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.Priority;
 import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 import com.zaxxer.hikari.metrics.PoolStats;
 import com.zaxxer.hikari.metrics.dropwizard.CodahaleHealthChecker;
@@ -29,6 +31,7 @@ import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
 import com.zaxxer.hikari.util.ConcurrentBag;
 import com.zaxxer.hikari.util.ConcurrentBag.IBagStateListener;
 import com.zaxxer.hikari.util.SuspendResumeLock;
+import com.zaxxer.hikari.util.TimerWheel;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,15 +39,26 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLTransientConnectionException;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import static com.zaxxer.hikari.util.ClockSource.*;
 import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_IN_USE;
 import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_NOT_IN_USE;
+import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_REMOVED;
 import static com.zaxxer.hikari.util.UtilityElf.*;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -64,25 +78,58 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
    public volatile int poolState;
 
    private final long aliveBypassWindowMs = Long.getLong("com.zaxxer.hikari.aliveBypassWindowMs", MILLISECONDS.toMillis(500));
+   private final long provenAliveWindowMs = Long.getLong("com.zaxxer.hikari.provenAliveWindowMs", SECONDS.toMillis(5));
+   private final long backgroundValidationPeriodMs = Long.getLong("com.zaxxer.hikari.backgroundValidation.periodMs", 250L);
    private final long housekeepingPeriodMs = Long.getLong("com.zaxxer.hikari.housekeeping.periodMs", SECONDS.toMillis(30));
+   private final long keepaliveSweepPeriodMs = Long.getLong("com.zaxxer.hikari.keepalive.sweepMs", Math.min(housekeepingPeriodMs, SECONDS.toMillis(1)));
+   private final int keepaliveParallelism = Math.max(1, Integer.getInteger("com.zaxxer.hikari.keepalive.parallelism", 4));
+   private final long adaptiveSizingPeriodMs = Long.getLong("com.zaxxer.hikari.adaptiveSizing.periodMs", SECONDS.toMillis(1));
+   private final long demandSamplingPeriodMs = Long.getLong("com.zaxxer.hikari.demandSampling.periodMs", SECONDS.toMillis(1));
+   private final long circuitOpenMs = Long.getLong("com.zaxxer.hikari.circuitBreaker.openMs", SECONDS.toMillis(5));
    private final long lifeTimeVarianceFactor = Math.min(40, Math.max(2, Long.getLong("com.zaxxer.hikari.lifeTimeVarianceFactor", 4))); // variance% = 100 / factor
    private final boolean isRequestBoundariesEnabled = Boolean.getBoolean("com.zaxxer.hikari.enableRequestBoundaries");
 
    private static final String EVICTED_CONNECTION_MESSAGE = "(connection was evicted)";
    private static final String DEAD_CONNECTION_MESSAGE = "(connection is dead)";
 
+   private static final long MIN_BACKOFF_MS = 10L;
+   private static final long MAX_BACKOFF_MS = SECONDS.toMillis(5);
+
    private final PoolEntryCreator poolEntryCreator = new PoolEntryCreator();
    private final PoolEntryCreator postFillPoolEntryCreator = new PoolEntryCreator("After adding ");
    private final ThreadPoolExecutor addConnectionExecutor;
+   private final AtomicInteger creationsInFlight = new AtomicInteger();
+   private final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
    private final ThreadPoolExecutor closeConnectionExecutor;
+   private final ThreadPoolExecutor retirementExecutor;
+   private final ThreadPoolExecutor keepaliveExecutor;
+   private final ThreadPoolExecutor asyncConnectionExecutor;
+   private final AtomicInteger keepalivesInFlight = new AtomicInteger();
+   private final AtomicBoolean isKeepaliveSweeperStarted = new AtomicBoolean();
+   private final Set<PoolEntry> retiringEntries = ConcurrentHashMap.newKeySet();
+   private final ReentrantLock fillPoolLock = new ReentrantLock();
+   private volatile long lastDeadConnection = currentTime();
 
    private final ConcurrentBag<PoolEntry> connectionBag;
+   private final Map<String, Lane> lanes;
+   private final AdmissionController admissionController;
+   private final CreationRateLimiter creationRateLimiter;
+   private final CircuitBreaker circuitBreaker;
+   private final AdaptiveLimit adaptiveLimit;
+   private final DemandTracker demandTracker;
+   private final DemandProfile demandProfile;
+   private volatile int prewarmTarget;
 
    private final ProxyLeakTaskFactory leakTaskFactory;
    private final SuspendResumeLock suspendResumeLock;
 
    private final ScheduledExecutorService houseKeepingExecutorService;
+   private final TimerWheel timerWheel;
    private ScheduledFuture<?> houseKeeperTask;
+   private volatile ScheduledFuture<?> keepaliveSweeperTask;
+   private ScheduledFuture<?> adaptiveSizerTask;
+   private ScheduledFuture<?> demandSamplerTask;
+   private ScheduledFuture<?> backgroundValidatorTask;
 
    /**
     * Construct a HikariPool with the specified configuration.
@@ -93,10 +140,20 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
    {
       super(config);
 
-      this.connectionBag = new ConcurrentBag<>(this);
+      this.connectionBag = new ConcurrentBag<>(this, config.getHandoffPolicy(), config.getBorrowOrder(), config.getMaximumPoolSize(), config.getPriorityStarvationLimit());
       this.suspendResumeLock = config.isAllowPoolSuspension() ? new SuspendResumeLock() : SuspendResumeLock.FAUX_LOCK;
+      this.lanes = createLanes(config);
+      this.admissionController = (config.isPredictiveAdmission() || config.getMaximumWaiters() > 0)
+         ? new AdmissionController(config.isPredictiveAdmission(), config.getMaximumWaiters()) : null;
+      this.adaptiveLimit = config.isAdaptivePoolSizing() ? new AdaptiveLimit(config.getMinimumAdaptivePoolSize(), config.getMaximumPoolSize()) : null;
+      this.demandTracker = config.getDemandWindow() > 0 ? new DemandTracker(config.getDemandWindow()) : null;
+      this.demandProfile = config.isPredictivePrewarming() ? createDemandProfile(config.getDemandProfile()) : null;
+      this.creationRateLimiter = config.getConnectionCreationRate() > 0 ? createCreationRateLimiter(config) : null;
+      this.circuitBreaker = config.getCircuitBreakerThreshold() > 0 ? new CircuitBreaker(config.getCircuitBreakerThreshold(), circuitOpenMs, config.getConnectionTimeout()) : null;
 
       this.houseKeepingExecutorService = initializeHouseKeepingExecutorService();
+      this.timerWheel = config.isUseTimerWheel() ? TimerWheel.acquire() : null;
+      this.keepaliveExecutor = createKeepaliveExecutor(Math.min(keepaliveParallelism, config.getMaximumPoolSize()), config.getThreadFactory());
 
       checkFailFast();
 
@@ -114,24 +171,76 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       ThreadFactory threadFactory = config.getThreadFactory();
 
       final int maxPoolSize = config.getMaximumPoolSize();
-      this.addConnectionExecutor = createThreadPoolExecutor(maxPoolSize, poolName + ":connection-adder", threadFactory, new CustomDiscardPolicy());
-      this.closeConnectionExecutor = createThreadPoolExecutor(maxPoolSize, poolName + ":connection-closer", threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+      this.addConnectionExecutor = createThreadPoolExecutor(maxPoolSize, poolName + ":connection-adder", executorThreadFactory(threadFactory, poolName + ":connection-adder"), new CustomDiscardPolicy());
+      final int creationParallelism = config.getConnectionCreationParallelism();
+      final int initialFillParallelism = getInitialFillParallelism(config);
+      addConnectionExecutor.setMaximumPoolSize(initialFillParallelism);
+      addConnectionExecutor.setCorePoolSize(initialFillParallelism);
+      if (initialFillParallelism != creationParallelism) {
+         readyFuture.whenComplete((ignored, throwable) -> {
+            addConnectionExecutor.setCorePoolSize(creationParallelism);
+            addConnectionExecutor.setMaximumPoolSize(creationParallelism);
+         });
+      }
+      this.closeConnectionExecutor = createThreadPoolExecutor(maxPoolSize, poolName + ":connection-closer", executorThreadFactory(threadFactory, poolName + ":connection-closer"), new ThreadPoolExecutor.CallerRunsPolicy());
+      this.retirementExecutor = config.getMaxConcurrentRetirements() > 0 ? createRetirementExecutor(config.getMaxConcurrentRetirements(), threadFactory) : null;
+      this.asyncConnectionExecutor = createAsyncConnectionExecutor(maxPoolSize, threadFactory);
 
-      this.leakTaskFactory = new ProxyLeakTaskFactory(config.getLeakDetectionThreshold(), houseKeepingExecutorService);
+      this.leakTaskFactory = new ProxyLeakTaskFactory(config.getLeakDetectionThreshold(), houseKeepingExecutorService, timerWheel);
 
       this.houseKeeperTask = houseKeepingExecutorService.scheduleWithFixedDelay(new HouseKeeper(), 100L, housekeepingPeriodMs, MILLISECONDS);
 
-      if (Boolean.getBoolean("com.zaxxer.hikari.blockUntilFilled") && config.getInitializationFailTimeout() > 1) {
-         addConnectionExecutor.setMaximumPoolSize(Math.min(16, Runtime.getRuntime().availableProcessors()));
-         addConnectionExecutor.setCorePoolSize(Math.min(16, Runtime.getRuntime().availableProcessors()));
+      if (adaptiveLimit != null) {
+         this.adaptiveSizerTask = houseKeepingExecutorService.scheduleWithFixedDelay(new AdaptiveSizer(), adaptiveSizingPeriodMs, adaptiveSizingPeriodMs, MILLISECONDS);
+      }
+
+      if (demandTracker != null || demandProfile != null) {
+         this.demandSamplerTask = houseKeepingExecutorService.scheduleWithFixedDelay(new DemandSampler(), 0L, demandSamplingPeriodMs, MILLISECONDS);
+      }
+
+      if (config.isBackgroundValidation()) {
+         this.backgroundValidatorTask = houseKeepingExecutorService.scheduleWithFixedDelay(new BackgroundValidator(), backgroundValidationPeriodMs, backgroundValidationPeriodMs, MILLISECONDS);
+      }
+
+      checkReady();
 
-         final long startTime = currentTime();
-         while (elapsedMillis(startTime) < config.getInitializationFailTimeout() && getTotalConnections() < config.getMinimumIdle()) {
-            quietlySleep(MILLISECONDS.toMillis(100));
+      if (config.isBlockUntilFilled() && config.getInitializationFailTimeout() > 1) {
+         try {
+            awaitReady(config.getInitializationFailTimeout());
          }
+         catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Get a stage that completes once the initial fill of the pool is complete, that is, once the pool holds
+    * {@code minimumIdle} connections and can serve that many requests without waiting for a connection to
+    * be opened.  The stage fails if the pool is shutdown first.
+    *
+    * @return a stage that completes when the pool is ready
+    */
+   public CompletionStage<Void> whenReady()
+   {
+      return readyFuture.minimalCompletionStage();
+   }
 
-         addConnectionExecutor.setCorePoolSize(1);
-         addConnectionExecutor.setMaximumPoolSize(1);
+   /**
+    * Wait for the initial fill of the pool to complete.
+    *
+    * @param timeoutMs the maximum time to wait, in milliseconds
+    * @return true if the pool is ready, false if the timeout elapsed first or the pool was shutdown
+    * @throws InterruptedException if interrupted while waiting
+    */
+   public boolean awaitReady(final long timeoutMs) throws InterruptedException
+   {
+      try {
+         readyFuture.get(timeoutMs, MILLISECONDS);
+         return true;
+      }
+      catch (ExecutionException | TimeoutException e) {
+         return false;
       }
    }
 
@@ -146,6 +255,18 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       return getConnection(connectionTimeout);
    }
 
+   /**
+    * Get a connection from the pool on behalf of a request of the specified priority class.
+    *
+    * @param priority the priority class of the request
+    * @return a java.sql.Connection instance
+    * @throws SQLException thrown if a timeout occurs trying to obtain a connection
+    */
+   public Connection getConnection(final Priority priority) throws SQLException
+   {
+      return getConnection(connectionTimeout, priority);
+   }
+
    /**
     * Get a connection from the pool, or timeout after the specified number of milliseconds.
     *
@@ -154,37 +275,111 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
     * @throws SQLException thrown if a timeout occurs trying to obtain a connection
     */
    public Connection getConnection(final long hardTimeout) throws SQLException
+   {
+      return getConnection(hardTimeout, Priority.current());
+   }
+
+   /**
+    * Get a connection from the pool on behalf of a request of the specified priority class, or timeout
+    * after the specified number of milliseconds.  While the pool is saturated, returned connections are
+    * handed to waiting requests of higher priority classes first.
+    *
+    * @param hardTimeout the maximum time to wait for a connection from the pool
+    * @param priority the priority class of the request
+    * @return a java.sql.Connection instance
+    * @throws SQLException thrown if a timeout occurs trying to obtain a connection
+    */
+   public Connection getConnection(final long hardTimeout, final Priority priority) throws SQLException
+   {
+      return getConnection(hardTimeout, priority, null, null);
+   }
+
+   /**
+    * Get a connection from the pool through the specified lane, waiting up to {@code connectionTimeout} in
+    * total for both a permit of the lane and a connection.
+    *
+    * @param laneName the name of a lane configured with {@link HikariConfig#addLane(String, int)}
+    * @return a java.sql.Connection instance
+    * @throws SQLException thrown if a timeout occurs trying to obtain a connection
+    * @throws IllegalArgumentException if no lane of that name is configured
+    */
+   public Connection getLaneConnection(final String laneName) throws SQLException
+   {
+      final var lane = lanes.get(laneName);
+      if (lane == null) {
+         throw new IllegalArgumentException(poolName + " - No lane named " + laneName + " is configured");
+      }
+
+      return getConnection(connectionTimeout, Priority.current(), lane, null);
+   }
+
+   /**
+    * Get a connection of the specified state from the pool.  An idle connection that already has the state is
+    * preferred; otherwise any connection is borrowed, and only the properties of the state that differ from those of
+    * the connection are set on it.
+    *
+    * @param wanted the state wanted of the connection
+    * @return a java.sql.Connection instance
+    * @throws SQLException thrown if a timeout occurs trying to obtain a connection, or if the state cannot be set
+    */
+   public Connection getConnection(final ConnectionState wanted) throws SQLException
+   {
+      return getConnection(connectionTimeout, Priority.current(), null, wanted);
+   }
+
+   private Connection getConnection(final long hardTimeout, final Priority priority, final Lane lane, final ConnectionState wanted) throws SQLException
    {
       suspendResumeLock.acquire();
       final var startTime = currentTime();
 
+      var laneAcquired = false;
       try {
-         var timeout = hardTimeout;
+         if (lane != null) {
+            if (!lane.acquire(hardTimeout)) {
+               metricsTracker.recordLaneTimeout(lane);
+               metricsTracker.recordBorrowTimeoutStats(startTime, priority);
+               throw createLaneTimeoutException(lane, startTime);
+            }
+            laneAcquired = true;
+         }
+
+         var timeout = hardTimeout - elapsedMillis(startTime);
+         if (admissionController != null) {
+            final var rejection = checkAdmission(timeout);
+            if (rejection != null) {
+               throw rejection;
+            }
+         }
+         if (circuitBreaker != null) {
+            final var rejection = checkCircuit();
+            if (rejection != null) {
+               throw rejection;
+            }
+         }
+
+         final Predicate<PoolEntry> preference = wanted != null ? entry -> getStateDiff(entry, wanted) == 0 : null;
          do {
-            var poolEntry = connectionBag.borrow(timeout, MILLISECONDS);
+            var poolEntry = preference != null ? connectionBag.borrow(timeout, MILLISECONDS, priority, preference)
+                                               : connectionBag.borrow(timeout, MILLISECONDS, priority);
             if (poolEntry == null) {
                break; // We timed out... break and throw exception
             }
 
-            final var now = currentTime();
-            if (poolEntry.isMarkedEvicted() || (elapsedMillis(poolEntry.lastAccessed, now) > aliveBypassWindowMs && isConnectionDead(poolEntry.connection))) {
-               closeConnection(poolEntry, poolEntry.isMarkedEvicted() ? EVICTED_CONNECTION_MESSAGE : DEAD_CONNECTION_MESSAGE);
-               timeout = hardTimeout - elapsedMillis(startTime);
-            }
-            else {
-               metricsTracker.recordBorrowStats(poolEntry, startTime);
-               if (isRequestBoundariesEnabled) {
-                  try {
-                     poolEntry.connection.beginRequest();
-                  } catch (SQLException e) {
-                     logger.warn("beginRequest Failed for: {}, ({})", poolEntry.connection, e.getMessage());
-                  }
+            final var stateDiff = wanted != null ? getStateDiff(poolEntry, wanted) : 0;
+            final var connection = acquireBorrowedEntry(poolEntry, startTime, priority, lane);
+            if (connection != null) {
+               laneAcquired = false;
+               if (wanted != null) {
+                  metricsTracker.recordStateAffinity(stateDiff == 0);
+                  applyState((ProxyConnection) connection, wanted, stateDiff);
                }
-               return poolEntry.createProxyConnection(leakTaskFactory.schedule(poolEntry));
+               return connection;
             }
+
+            timeout = hardTimeout - elapsedMillis(startTime);
          } while (timeout > 0L);
 
-         metricsTracker.recordBorrowTimeoutStats(startTime);
+         metricsTracker.recordBorrowTimeoutStats(startTime, priority);
          throw createTimeoutException(startTime);
       }
       catch (InterruptedException e) {
@@ -192,10 +387,69 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
          throw new SQLException(poolName + " - Interrupted during connection acquisition", e);
       }
       finally {
+         if (laneAcquired) {
+            lane.release();
+         }
          suspendResumeLock.release();
       }
    }
 
+   /**
+    * Get a connection from the pool asynchronously.  The calling thread is never parked waiting for a
+    * connection; if none is idle, the returned future is completed when one is returned to (or added to)
+    * the pool, on a thread of the pool's own executor, or fails with a {@link SQLTransientConnectionException}
+    * after the specified number of milliseconds.  Cancelling the future withdraws the request.
+    * <p>
+    * Like {@link #getConnection(long)}, an idle connection that has not been used recently is validated
+    * before it is handed out, on the thread that completes the future.
+    *
+    * @param hardTimeout the maximum time to wait for a connection from the pool
+    * @return a future completed with a java.sql.Connection instance
+    */
+   public CompletableFuture<Connection> getConnectionAsync(final long hardTimeout)
+   {
+      return getConnectionAsync(hardTimeout, asyncConnectionExecutor);
+   }
+
+   /**
+    * As {@link #getConnectionAsync(long)}, but a request that waits for a connection is completed on the
+    * specified executor.  If the executor rejects the completion, the connection is returned to the pool and the
+    * future fails, with the {@link RejectedExecutionException}, or as any pending request if the pool is shutting down.
+    *
+    * @param hardTimeout the maximum time to wait for a connection from the pool
+    * @param executor the executor on which to validate the connection and complete the future
+    * @return a future completed with a java.sql.Connection instance
+    */
+   public CompletableFuture<Connection> getConnectionAsync(final long hardTimeout, final Executor executor)
+   {
+      if (!suspendResumeLock.tryAcquire()) {
+         return CompletableFuture.failedFuture(new SQLTransientConnectionException(poolName + " - Connection is not available, the pool is suspended."));
+      }
+
+      final var startTime = currentTime();
+      final var future = new CompletableFuture<Connection>();
+      future.whenComplete((connection, throwable) -> suspendResumeLock.release());
+
+      if (admissionController != null) {
+         final var rejection = checkAdmission(hardTimeout);
+         if (rejection != null) {
+            future.completeExceptionally(rejection);
+            return future;
+         }
+      }
+      if (circuitBreaker != null) {
+         final var rejection = checkCircuit();
+         if (rejection != null) {
+            future.completeExceptionally(rejection);
+            return future;
+         }
+      }
+
+      borrowAsync(future, startTime, hardTimeout, Priority.current(), executor);
+
+      return future;
+   }
+
    /**
     * Shutdown the pool, closing all idle connections and aborting or closing
     * active connections.
@@ -206,6 +460,7 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
    {
       try {
          poolState = POOL_SHUTDOWN;
+         readyFuture.completeExceptionally(new SQLException(poolName + " - The pool has been shutdown."));
 
          if (addConnectionExecutor == null) { // pool never started
             return;
@@ -218,6 +473,27 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             houseKeeperTask = null;
          }
 
+         final var sweeperTask = keepaliveSweeperTask;
+         if (sweeperTask != null) {
+            sweeperTask.cancel(false);
+            keepaliveSweeperTask = null;
+         }
+
+         if (adaptiveSizerTask != null) {
+            adaptiveSizerTask.cancel(false);
+            adaptiveSizerTask = null;
+         }
+
+         if (demandSamplerTask != null) {
+            demandSamplerTask.cancel(false);
+            demandSamplerTask = null;
+         }
+
+         if (backgroundValidatorTask != null) {
+            backgroundValidatorTask.cancel(false);
+            backgroundValidatorTask = null;
+         }
+
          softEvictConnections();
 
          addConnectionExecutor.shutdown();
@@ -225,10 +501,27 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             logger.warn("Timed-out waiting for add connection executor to shutdown");
          }
 
+         if (retirementExecutor != null) {
+            retirementExecutor.shutdown();
+            if (!retirementExecutor.awaitTermination(getLoginTimeout(), SECONDS)) {
+               logger.warn("Timed-out waiting for connection retirement executor to shutdown");
+            }
+         }
+
+         keepaliveExecutor.shutdown();
+         if (!keepaliveExecutor.awaitTermination(getLoginTimeout(), SECONDS)) {
+            logger.warn("Timed-out waiting for keepalive executor to shutdown");
+         }
+
          destroyHouseKeepingExecutorService();
 
          connectionBag.close();
 
+         asyncConnectionExecutor.shutdown();
+         if (!asyncConnectionExecutor.awaitTermination(getLoginTimeout(), SECONDS)) {
+            logger.warn("Timed-out waiting for async connection executor to shutdown");
+         }
+
          final var assassinExecutor = createThreadPoolExecutor(config.getMaximumPoolSize(), poolName + ":connection-assassinator",
                                                                            config.getThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
          try {
@@ -335,7 +628,7 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
    @Override
    public void addBagItem(final int waiting)
    {
-      if (waiting > addConnectionExecutor.getQueue().size())
+      if (waiting > addConnectionExecutor.getQueue().size() + creationsInFlight.get())
          addConnectionExecutor.submit(poolEntryCreator);
    }
 
@@ -371,11 +664,75 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       return connectionBag.getWaitingThreadCount();
    }
 
+   /** {@inheritDoc} */
+   @Override
+   public String getCircuitBreakerState()
+   {
+      return circuitBreaker != null ? circuitBreaker.getState().name() : null;
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public boolean isReady()
+   {
+      return readyFuture.isDone() && !readyFuture.isCompletedExceptionally();
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public int getFillProgress()
+   {
+      final var target = getReadyTarget();
+      return (isReady() || target == 0) ? 100 : Math.min(99, getTotalConnections() * 100 / target);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public String getDemandProfile()
+   {
+      return demandProfile != null ? demandProfile.export() : null;
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public void setDemandProfile(final String profile)
+   {
+      if (demandProfile == null) {
+         throw new IllegalStateException(poolName + " - predictivePrewarming is not enabled");
+      }
+
+      demandProfile.load(profile);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public int getEffectiveMaximumPoolSize()
+   {
+      final var maxPoolSize = config.getMaximumPoolSize();
+      return adaptiveLimit != null ? Math.min(adaptiveLimit.getLimit(), maxPoolSize) : maxPoolSize;
+   }
+
    /** {@inheritDoc} */
    @Override
    public void softEvictConnections()
    {
-      connectionBag.values().forEach(poolEntry -> softEvictConnection(poolEntry, "(connection evicted)", false /* not owner */));
+      final var windowMs = config.getSoftEvictionWindow();
+      if (poolState != POOL_NORMAL || (windowMs == 0 && retirementExecutor == null)) {
+         connectionBag.values().forEach(poolEntry -> softEvictConnection(poolEntry, "(connection evicted)", false /* not owner */));
+         return;
+      }
+
+      final var poolEntries = connectionBag.values();
+      for (var i = 0; i < poolEntries.size(); i++) {
+         final var poolEntry = poolEntries.get(i);
+         final var delayMs = windowMs * i / poolEntries.size();
+         if (delayMs == 0) {
+            retireConnection(poolEntry, "(connection evicted)");
+         }
+         else {
+            houseKeepingExecutorService.schedule(() -> retireConnection(poolEntry, "(connection evicted)"), delayMs, MILLISECONDS);
+         }
+      }
    }
 
    /** {@inheritDoc} */
@@ -439,6 +796,12 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
                logger.warn("endRequest Failed for: {},({})", poolEntry.connection, e.getMessage());
             }
          }
+         if (admissionController != null) {
+            admissionController.recordReturn();
+         }
+         if (adaptiveLimit != null) {
+            adaptiveLimit.recordUsage(elapsedNanos(poolEntry.lastBorrowed));
+         }
          connectionBag.requite(poolEntry);
       }
    }
@@ -475,27 +838,37 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
 
    /**
     * Creating new poolEntry. If maxLifetime is configured, create a future End-of-life task with variance from
-    * the maxLifetime time to ensure there is no massive die-off of Connections in the pool.
+    * the maxLifetime time to ensure there is no massive die-off of Connections in the pool.  If a creation rate
+    * is configured, every connection opened by the pool first takes a permit from the rate limiter.
     */
    private PoolEntry createPoolEntry()
    {
+      if (creationRateLimiter != null && !acquireCreationPermit()) {
+         return null;
+      }
+
       try {
          final var poolEntry = newPoolEntry(getTotalConnections() == 0);
+         poolEntry.setAliveWindow(aliveBypassWindowMs);
 
          final var maxLifetime = config.getMaxLifetime();
          if (maxLifetime > 0) {
             // default variance upto 25% of the maxLifetime (random)
             final var variance = maxLifetime > 10_000L ? ThreadLocalRandom.current().nextLong( maxLifetime / lifeTimeVarianceFactor ) : 0L;
             final var lifetime = maxLifetime - variance;
-            poolEntry.setFutureEol(houseKeepingExecutorService.schedule(new MaxLifetimeTask(poolEntry), lifetime, MILLISECONDS));
+            final var task = new MaxLifetimeTask(poolEntry);
+            poolEntry.setFutureEol(timerWheel != null ? timerWheel.schedule(task, houseKeepingExecutorService, lifetime, MILLISECONDS)
+                                                      : houseKeepingExecutorService.schedule(task, lifetime, MILLISECONDS));
          }
 
          final long keepaliveTime = config.getKeepaliveTime();
          if (keepaliveTime > 0) {
             // variance up to 20% of the heartbeat time
-            final var variance = ThreadLocalRandom.current().nextLong(keepaliveTime / 5);
-            final var heartbeatTime = keepaliveTime - variance;
-            poolEntry.setKeepalive(houseKeepingExecutorService.scheduleWithFixedDelay(new KeepaliveTask(poolEntry), heartbeatTime, heartbeatTime, MILLISECONDS));
+            poolEntry.keepaliveVariance = ThreadLocalRandom.current().nextLong(keepaliveTime / 5);
+         }
+
+         if (circuitBreaker != null && circuitBreaker.recordSuccess()) {
+            logger.info("{} - Circuit breaker closed, connection to the database re-established.", poolName);
          }
 
          return poolEntry;
@@ -511,25 +884,245 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
          }
       }
 
+      if (circuitBreaker != null && poolState == POOL_NORMAL && circuitBreaker.recordFailure()) {
+         logger.warn("{} - Circuit breaker opened after {} consecutive connection failures, requests will fail fast while no connection is idle.",
+                     poolName, circuitBreaker.getFailures());
+      }
+
       return null;
    }
 
    /**
-    * Fill pool up from current idle connections (as they are perceived at the point of execution) to minimumIdle connections.
+    * Wait for a permit from the creation rate limiter.
+    *
+    * @return true if a permit was taken, false if the pool was shutdown while waiting for one
     */
-   private synchronized void fillPool(final boolean isAfterAdd)
+   private boolean acquireCreationPermit()
    {
-      final var idle = getIdleConnections();
-      final var shouldAdd = getTotalConnections() < config.getMaximumPoolSize() && idle < config.getMinimumIdle();
+      for (var waitNanos = creationRateLimiter.tryAcquire(); waitNanos > 0; waitNanos = creationRateLimiter.tryAcquire()) {
+         if (poolState == POOL_SHUTDOWN) {
+            return false;
+         }
+
+         if (metricsTracker != null) {
+            metricsTracker.recordConnectionCreationThrottled();
+         }
+         quietlySleep(Math.max(1L, NANOSECONDS.toMillis(waitNanos)));
+      }
+
+      return true;
+   }
+
+   /**
+    * Record that a dead or broken connection was found.  Connections proven alive before this are validated again
+    * when they are next borrowed, as whatever killed this one may have killed them too.
+    */
+   void recordDeadConnection()
+   {
+      lastDeadConnection = currentTime();
+   }
+
+   /**
+    * Validate a borrowed entry and wrap it in a proxy connection, or close it if it is evicted or dead.
+    *
+    * @param poolEntry the borrowed entry
+    * @param startTime the time the borrow started, for metrics
+    * @param priority the priority class of the request, for metrics
+    * @param lane the lane whose permit the borrower holds, or null
+    * @return a proxy connection, or null if the entry was closed and another must be borrowed
+    */
+   private Connection acquireBorrowedEntry(final PoolEntry poolEntry, final long startTime, final Priority priority, final Lane lane)
+   {
+      final var now = currentTime();
+      if (poolEntry.isMarkedEvicted()) {
+         closeConnection(poolEntry, EVICTED_CONNECTION_MESSAGE);
+         return null;
+      }
+
+      // skip the validation round trip if the connection was returned moments ago, or was proven alive by a statement
+      // or a validation within its window, and no dead connection has been found since
+      if (elapsedMillis(poolEntry.lastAccessed, now) > aliveBypassWindowMs && !poolEntry.isProvenAlive(now, lastDeadConnection)) {
+         if (isConnectionDead(poolEntry)) {
+            recordDeadConnection();
+            closeConnection(poolEntry, DEAD_CONNECTION_MESSAGE);
+            return null;
+         }
+         poolEntry.markValidated(now, provenAliveWindowMs);
+      }
+
+      poolEntry.lane = lane;
+      if (adaptiveLimit != null) {
+         poolEntry.lastBorrowed = now;
+         adaptiveLimit.recordAcquisition(elapsedNanos(startTime, now));
+      }
+      metricsTracker.recordBorrowStats(poolEntry, startTime, priority);
+      if (isRequestBoundariesEnabled) {
+         try {
+            poolEntry.connection.beginRequest();
+         } catch (SQLException e) {
+            logger.warn("beginRequest Failed for: {}, ({})", poolEntry.connection, e.getMessage());
+         }
+      }
+      return poolEntry.createProxyConnection(leakTaskFactory.schedule(poolEntry));
+   }
+
+   /**
+    * Give a borrowed connection the state wanted by its borrower, or close it if that fails.
+    *
+    * @param connection the borrowed connection
+    * @param wanted the state wanted by the borrower
+    * @param stateDiff the states that differ from those of the connection
+    * @throws SQLException if setting the state fails
+    */
+   private void applyState(final ProxyConnection connection, final ConnectionState wanted, final int stateDiff) throws SQLException
+   {
+      try {
+         connection.applyState(wanted, stateDiff);
+      }
+      catch (SQLException e) {
+         connection.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Borrow an entry from the bag asynchronously on behalf of {@link #getConnectionAsync(long)}, retrying
+    * with the remaining time if the borrowed entry turns out to be evicted or dead.
+    *
+    * @param future the future to complete
+    * @param startTime the time the borrow started
+    * @param hardTimeout the maximum time to wait for a connection from the pool
+    * @param priority the priority class of the request
+    * @param executor the executor on which a request that had to wait is completed
+    */
+   private void borrowAsync(final CompletableFuture<Connection> future, final long startTime, final long hardTimeout, final Priority priority, final Executor executor)
+   {
+      final var timeout = hardTimeout - elapsedMillis(startTime);
+      if (timeout <= 0L || poolState == POOL_SHUTDOWN) {
+         completeAsyncTimeout(future, startTime, priority);
+         return;
+      }
+
+      final var pending = connectionBag.borrowAsync(timeout, MILLISECONDS, priority);
+      if (!pending.isDone()) {
+         try {
+            final var timeoutTask = houseKeepingExecutorService.schedule(() -> pending.cancel(false), timeout, MILLISECONDS);
+            pending.whenComplete((poolEntry, throwable) -> timeoutTask.cancel(false));
+         }
+         catch (RejectedExecutionException e) {
+            pending.cancel(false);
+         }
+
+         // propagate cancellation by the caller, which withdraws the waiter from the bag
+         future.whenComplete((connection, throwable) -> pending.cancel(false));
+
+         // the bag completes the pending borrow on the thread that returns or adds the entry, inside its hand-off;
+         // validation and the caller's continuations run on the executor instead
+         pending.whenComplete((poolEntry, throwable) -> {
+            try {
+               executor.execute(() -> completeAsync(future, poolEntry, startTime, hardTimeout, priority, executor));
+            }
+            catch (RejectedExecutionException e) {
+               if (poolEntry != null) {
+                  connectionBag.requite(poolEntry);
+               }
+               if (poolState == POOL_SHUTDOWN) {
+                  completeAsyncTimeout(future, startTime, priority);
+               }
+               else {
+                  future.completeExceptionally(e);
+               }
+            }
+         });
+      }
+      else {
+         completeAsync(future, pending.isCompletedExceptionally() ? null : pending.getNow(null), startTime, hardTimeout, priority, executor);
+      }
+   }
+
+   private void completeAsync(final CompletableFuture<Connection> future, final PoolEntry poolEntry, final long startTime, final long hardTimeout, final Priority priority, final Executor executor)
+   {
+      if (poolEntry == null) {
+         completeAsyncTimeout(future, startTime, priority);
+      }
+      else if (future.isDone()) {
+         connectionBag.requite(poolEntry);
+      }
+      else {
+         final var connection = acquireBorrowedEntry(poolEntry, startTime, priority, null);
+         if (connection == null) {
+            borrowAsync(future, startTime, hardTimeout, priority, executor);
+         }
+         else if (!future.complete(connection)) {
+            try {
+               connection.close();
+            }
+            catch (SQLException e) {
+               logger.debug("{} - Failed to return connection to the pool after the request was cancelled", poolName, e);
+            }
+         }
+      }
+   }
+
+   private void completeAsyncTimeout(final CompletableFuture<Connection> future, final long startTime, final Priority priority)
+   {
+      if (future.isDone()) {
+         return;
+      }
+
+      if (poolState == POOL_SHUTDOWN) {
+         future.completeExceptionally(new SQLTransientConnectionException(poolName + " - Connection is not available, the pool has been shutdown."));
+      }
+      else {
+         metricsTracker.recordBorrowTimeoutStats(startTime, priority);
+         future.completeExceptionally(createTimeoutException(startTime));
+      }
+   }
 
-      if (shouldAdd) {
-         final var countToAdd = config.getMinimumIdle() - idle;
-         for (int i = 0; i < countToAdd; i++)
-            addConnectionExecutor.submit(isAfterAdd ? postFillPoolEntryCreator : poolEntryCreator);
+   /**
+    * Fill pool up from current idle connections (as they are perceived at the point of execution) to minimumIdle connections.
+    */
+   private void fillPool(final boolean isAfterAdd)
+   {
+      fillPoolLock.lock();
+      try {
+         final var idle = getIdleConnections();
+         final var targetIdle = getTargetIdle();
+         final var shouldAdd = getTotalConnections() < getEffectiveMaximumPoolSize() && idle < targetIdle;
+
+         if (shouldAdd) {
+            final var countToAdd = targetIdle - idle;
+            for (int i = 0; i < countToAdd; i++)
+               addConnectionExecutor.submit(isAfterAdd ? postFillPoolEntryCreator : poolEntryCreator);
+         }
+         else if (isAfterAdd) {
+            logger.debug("{} - Fill pool skipped, pool has sufficient level or currently being filled.", poolName);
+         }
+      }
+      finally {
+         fillPoolLock.unlock();
       }
-      else if (isAfterAdd) {
-         logger.debug("{} - Fill pool skipped, pool has sufficient level or currently being filled.", poolName);
+   }
+
+   /**
+    * Get the ThreadFactory for the connection adder and closer executors, which create virtual threads if so configured.
+    *
+    * @param threadFactory the user-configured ThreadFactory, possibly null
+    * @param threadName the name of the executor thread
+    * @return the ThreadFactory to use, or null to use the default
+    */
+   private ThreadFactory executorThreadFactory(final ThreadFactory threadFactory, final String threadName)
+   {
+      if (config.isUseVirtualThreads()) {
+         final var virtualThreadFactory = createVirtualThreadFactory(threadName);
+         if (virtualThreadFactory != null) {
+            return virtualThreadFactory;
+         }
+
+         logger.warn("{} - useVirtualThreads is enabled, but virtual threads are not supported by this JVM.", poolName);
       }
+
+      return threadFactory;
    }
 
    /**
@@ -572,6 +1165,7 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
          if (poolEntry != null) {
             if (config.getMinimumIdle() > 0) {
                connectionBag.add(poolEntry);
+               startKeepaliveSweeper();
                logger.info("{} - Added connection {}", poolName, poolEntry.connection);
             }
             else {
@@ -593,6 +1187,44 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       }
    }
 
+   /**
+    * Get the number of threads that open connections during the initial fill of the pool.
+    *
+    * @param config the pool configuration
+    * @return the initial fill parallelism
+    */
+   private static int getInitialFillParallelism(final HikariConfig config)
+   {
+      final var creationParallelism = config.getConnectionCreationParallelism();
+      if (config.getInitialFillParallelism() > 0) {
+         return Math.max(creationParallelism, config.getInitialFillParallelism());
+      }
+      else if (config.isBlockUntilFilled()) {
+         return Math.max(creationParallelism, Math.min(16, Runtime.getRuntime().availableProcessors()));
+      }
+      return creationParallelism;
+   }
+
+   /**
+    * Get the number of connections the initial fill of the pool opens.
+    *
+    * @return minimumIdle, or the effective maximum pool size if it is lower
+    */
+   private int getReadyTarget()
+   {
+      return Math.min(config.getMinimumIdle(), getEffectiveMaximumPoolSize());
+   }
+
+   /**
+    * Complete the initial fill of the pool, if the pool now holds enough connections.
+    */
+   private void checkReady()
+   {
+      if (!readyFuture.isDone() && getTotalConnections() >= getReadyTarget() && readyFuture.complete(null)) {
+         logger.info("{} - Initial fill completed with {} connections.", poolName, getTotalConnections());
+      }
+   }
+
    /**
     * Log the Throwable that caused pool initialization to fail, and then throw a PoolInitializationException with
     * that cause attached.
@@ -629,6 +1261,122 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       return false;
    }
 
+   /**
+    * Retire a connection that has reached the end of its life.  With {@code maxConcurrentRetirements} configured,
+    * a successor is opened before the connection is evicted, so that retirement does not take capacity from the
+    * pool; otherwise the connection is evicted and replaced as usual.
+    *
+    * @param poolEntry the PoolEntry to retire
+    * @param reason the reason for the eviction
+    */
+   private void retireConnection(final PoolEntry poolEntry, final String reason)
+   {
+      if (retirementExecutor == null || poolState != POOL_NORMAL) {
+         if (softEvictConnection(poolEntry, reason, false /* not owner */)) {
+            addBagItem(connectionBag.getWaitingThreadCount());
+         }
+      }
+      else if (!poolEntry.isMarkedEvicted() && retiringEntries.add(poolEntry)) {
+         retirementExecutor.execute(() -> replaceConnection(poolEntry, reason));
+      }
+   }
+
+   /**
+    * Open a successor for a retiring connection, then evict the retiring connection.  The pool may exceed its
+    * maximum size by the number of retirements in progress while the successors are being opened.  Like any other
+    * connection, a successor waits for a permit from the creation rate limiter, if there is one.
+    *
+    * @param poolEntry the PoolEntry to retire
+    * @param reason the reason for the eviction
+    */
+   private void replaceConnection(final PoolEntry poolEntry, final String reason)
+   {
+      try {
+         if (poolState == POOL_NORMAL && poolEntry.getState() != STATE_REMOVED && !poolEntry.isMarkedEvicted()) {
+            final var successor = createPoolEntry();
+            if (successor != null) {
+               connectionBag.add(successor);
+               logger.debug("{} - Added connection {} to replace {}", poolName, successor.connection, poolEntry.connection);
+            }
+         }
+      }
+      finally {
+         retiringEntries.remove(poolEntry);
+         if (softEvictConnection(poolEntry, reason, false /* not owner */)) {
+            addBagItem(connectionBag.getWaitingThreadCount());
+         }
+      }
+   }
+
+   /**
+    * Create the executor on which retiring connections are replaced, one thread per concurrent retirement.
+    *
+    * @param maxConcurrentRetirements the maximum number of connections retired at once
+    * @param threadFactory the user-configured ThreadFactory, possibly null
+    * @return the retirement executor
+    */
+   private ThreadPoolExecutor createRetirementExecutor(final int maxConcurrentRetirements, final ThreadFactory threadFactory)
+   {
+      final var executor = createThreadPoolExecutor(new LinkedBlockingQueue<>(), poolName + ":connection-retirer",
+                                                    executorThreadFactory(threadFactory, poolName + ":connection-retirer"), new ThreadPoolExecutor.DiscardPolicy());
+      executor.setMaximumPoolSize(maxConcurrentRetirements);
+      executor.setCorePoolSize(maxConcurrentRetirements);
+      return executor;
+   }
+
+   /**
+    * Start the keepalive sweeper, if keepalives are enabled and it has not been started yet.  It is started when the
+    * first connection is added to the pool, rather than with the pool, so that a pool without connections schedules
+    * no work.
+    */
+   private void startKeepaliveSweeper()
+   {
+      if (config.getKeepaliveTime() > 0 && !isKeepaliveSweeperStarted.get() && isKeepaliveSweeperStarted.compareAndSet(false, true)) {
+         final var sweeperTask = houseKeepingExecutorService.scheduleWithFixedDelay(new KeepaliveSweeper(), keepaliveSweepPeriodMs, keepaliveSweepPeriodMs, MILLISECONDS);
+         keepaliveSweeperTask = sweeperTask;
+         if (poolState == POOL_SHUTDOWN) {
+            // shutdown() may have run before the task was published
+            sweeperTask.cancel(false);
+         }
+      }
+   }
+
+   /**
+    * Create the executor on which asynchronous requests that waited for a connection are completed.  At most
+    * {@code maximumPoolSize} connections can be handed to waiting requests at once, so that bounds its threads,
+    * which time out when idle.  Once it is shut down it rejects completions, and as with an executor supplied to
+    * {@link #getConnectionAsync(long, Executor)}, the connection is then returned to the pool and the request fails.
+    *
+    * @param maxPoolSize the maximum size of the pool
+    * @param threadFactory the configured ThreadFactory, or null
+    * @return the executor
+    */
+   private ThreadPoolExecutor createAsyncConnectionExecutor(final int maxPoolSize, final ThreadFactory threadFactory)
+   {
+      final var executor = createThreadPoolExecutor(new LinkedBlockingQueue<>(), poolName + ":async-connection",
+                                                    executorThreadFactory(threadFactory, poolName + ":async-connection"), new ThreadPoolExecutor.AbortPolicy());
+      executor.setMaximumPoolSize(maxPoolSize);
+      executor.setCorePoolSize(maxPoolSize);
+      return executor;
+   }
+
+   /**
+    * Create the executor on which the keepalive sweeper validates idle connections, with as many threads as the
+    * number of keepalives that may be in flight at once.
+    *
+    * @param parallelism the maximum number of concurrent keepalives
+    * @param threadFactory the thread factory of the configuration, or null
+    * @return the keepalive executor
+    */
+   private ThreadPoolExecutor createKeepaliveExecutor(final int parallelism, final ThreadFactory threadFactory)
+   {
+      final var executor = createThreadPoolExecutor(new LinkedBlockingQueue<>(), poolName + ":keepalive",
+                                                    executorThreadFactory(threadFactory, poolName + ":keepalive"), new ThreadPoolExecutor.AbortPolicy());
+      executor.setMaximumPoolSize(parallelism);
+      executor.setCorePoolSize(parallelism);
+      return executor;
+   }
+
    /**
     * Create/initialize the Housekeeping service {@link ScheduledExecutorService}.  If the user specified an Executor
     * to be used in the {@link HikariConfig}, then we use that.  If no Executor was specified (typical), then create
@@ -658,6 +1406,48 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       if (config.getScheduledExecutor() == null) {
          houseKeepingExecutorService.shutdownNow();
       }
+
+      if (timerWheel != null) {
+         timerWheel.release();
+      }
+   }
+
+   /**
+    * Get the number of idle connections the pool maintains.  This is minimumIdle, unless predictive pre-warming
+    * expects the demand in the current or next quarter hour to exceed it, in which case it is raised so that the
+    * total number of connections covers the predicted demand.
+    *
+    * @return the target number of idle connections
+    */
+   private int getTargetIdle()
+   {
+      final var minIdle = config.getMinimumIdle();
+      final var target = prewarmTarget;
+      return target > minIdle ? Math.max(minIdle, target - getActiveConnections()) : minIdle;
+   }
+
+   /**
+    * Close idle connections in excess of the peak demand seen over the demand window, at most half of the
+    * excess per housekeeping run, so that the pool shrinks gradually, and never so many that fewer than
+    * the target number of idle connections remain idle.  The least recently used connections are closed first.
+    */
+   private void trimToDemand()
+   {
+      final var notInUse = connectionBag.values(STATE_NOT_IN_USE);
+      final var targetIdle = getTargetIdle();
+      final var surplus = getTotalConnections() - Math.max(demandTracker.getPeak(), targetIdle);
+      var maxToRemove = Math.min((surplus + 1) / 2, notInUse.size() - targetIdle);
+      if (maxToRemove <= 0) {
+         return;
+      }
+
+      notInUse.sort(Comparator.comparingLong(entry -> entry.lastAccessed));
+      for (PoolEntry entry : notInUse) {
+         if (maxToRemove > 0 && connectionBag.reserve(entry)) {
+            closeConnection(entry, "(connection exceeds recent demand)");
+            maxToRemove--;
+         }
+      }
    }
 
    /**
@@ -674,12 +1464,114 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             this.idleConnections = HikariPool.this.getIdleConnections();
             this.totalConnections = HikariPool.this.getTotalConnections();
             this.activeConnections = HikariPool.this.getActiveConnections();
-            this.maxConnections = config.getMaximumPoolSize();
+            this.maxConnections = HikariPool.this.getEffectiveMaximumPoolSize();
             this.minConnections = config.getMinimumIdle();
          }
       };
    }
 
+   private DemandProfile createDemandProfile(final String profile)
+   {
+      final var demandProfile = new DemandProfile();
+      if (profile != null) {
+         try {
+            demandProfile.load(profile);
+         }
+         catch (IllegalArgumentException e) {
+            logger.warn("{} - Ignoring demandProfile, starting with an empty profile: {}", poolName, e.getMessage());
+         }
+      }
+      return demandProfile;
+   }
+
+   private CreationRateLimiter createCreationRateLimiter(final HikariConfig config)
+   {
+      if (!config.isConnectionCreationRateShared()) {
+         return new CreationRateLimiter(config.getConnectionCreationRate());
+      }
+
+      final var limiter = CreationRateLimiter.shared(config.getConnectionCreationRate());
+      if (limiter.getPermitsPerSecond() != config.getConnectionCreationRate()) {
+         logger.warn("{} - The shared connection creation rate limit is already {}/s, ignoring connectionCreationRate of {}/s.",
+                     poolName, limiter.getPermitsPerSecond(), config.getConnectionCreationRate());
+      }
+      return limiter;
+   }
+
+   private static Map<String, Lane> createLanes(final HikariConfig config)
+   {
+      final var lanes = new HashMap<String, Lane>();
+      config.getLanes().forEach((name, maxConnections) -> lanes.put(name, new Lane(name, maxConnections)));
+      return Map.copyOf(lanes);
+   }
+
+   /**
+    * Ask the admission controller whether a request may join the requests waiting for a connection.  This
+    * is cheap when no request is waiting, and the rejection is not logged, as rejections come in bursts.
+    *
+    * @param remainingMs the time the request has left before its timeout, in milliseconds
+    * @return null if the request is admitted, otherwise a SQLException to fail the request with
+    */
+   private SQLException checkAdmission(final long remainingMs)
+   {
+      final var waiting = connectionBag.getWaitingThreadCount();
+      if (waiting == 0) {
+         return null;
+      }
+
+      // the waiter count includes borrowers that are only scanning the bag, so no request is rejected while a
+      // connection is idle
+      final var isExhausted = getIdleConnections() == 0;
+      final var isSaturated = isExhausted && getTotalConnections() >= getEffectiveMaximumPoolSize();
+      final var reason = admissionController.checkAdmission(waiting, isExhausted, isSaturated, remainingMs);
+      if (reason == null) {
+         return null;
+      }
+
+      metricsTracker.recordConnectionRejected();
+      return new SQLTransientConnectionException(poolName + " - Connection is not available, request rejected because " + reason);
+   }
+
+   /**
+    * Ask the circuit breaker whether a request may wait for a connection.  A request that finds an idle
+    * connection is always served; one that would have to wait while the circuit is open fails at once,
+    * with the cause of the last connection failure.
+    *
+    * @return null if the request may proceed, otherwise a SQLException to fail the request with
+    */
+   private SQLException checkCircuit()
+   {
+      if (getIdleConnections() > 0 || circuitBreaker.allowRequest()) {
+         return null;
+      }
+
+      metricsTracker.recordConnectionRejected();
+
+      String sqlState = null;
+      int errorCode = 0;
+      final var originalException = getLastConnectionFailure();
+      if (originalException instanceof SQLException) {
+         sqlState = ((SQLException) originalException).getSQLState();
+         errorCode = ((SQLException) originalException).getErrorCode();
+      }
+      final var connectionException = new SQLTransientConnectionException(
+         poolName + " - Connection is not available, request rejected because the circuit breaker is open after " + circuitBreaker.getFailures() + " consecutive " +
+            "connection failures, the last " + circuitBreaker.getMillisSinceFailure() + "ms ago",
+         sqlState, errorCode, originalException);
+      if (originalException instanceof SQLException) {
+         connectionException.setNextException((SQLException) originalException);
+      }
+
+      return connectionException;
+   }
+
+   private SQLException createLaneTimeoutException(final Lane lane, final long startTime)
+   {
+      logger.debug("{} - Timeout waiting for lane {}", poolName, lane);
+      return new SQLTransientConnectionException(poolName + " - Connection is not available, request timed out after " + elapsedMillis(startTime) + "ms " +
+         "waiting for lane " + lane);
+   }
+
    /**
     * Create a timeout exception (specifically, {@link SQLTransientConnectionException}) to be thrown, because a
     * timeout occurred when trying to acquire a Connection from the pool.  If there was an underlying cause for the
@@ -740,22 +1632,44 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       @Override
       public Boolean call()
       {
-         var backoffMs = 10L;
+         var backoffMs = MIN_BACKOFF_MS;
          var added = false;
          try {
-            while (shouldContinueCreating()) {
-               final var poolEntry = createPoolEntry();
+            while (reserveCreation()) {
+               // the reservation is held while createPoolEntry() is throttled, so that further creators are not
+               // started for the same need
+               PoolEntry poolEntry = null;
+               try {
+                  poolEntry = createPoolEntry();
+                  if (poolEntry != null) {
+                     connectionBag.add(poolEntry);
+                  }
+               }
+               finally {
+                  // released only once the entry is counted by the bag, so that concurrent creators cannot exceed the
+                  // maximum pool size between the two
+                  creationsInFlight.decrementAndGet();
+               }
+
                if (poolEntry != null) {
                   added = true;
-                  connectionBag.add(poolEntry);
+                  // the entry may have been handed straight to a waiter while it was still counted as in flight, so
+                  // make sure any remaining waiters have a creator
+                  final var waiting = connectionBag.getWaitingThreadCount();
+                  if (waiting > 0) {
+                     addBagItem(waiting);
+                  }
+                  startKeepaliveSweeper();
                   logger.debug("{} - Added connection {}", poolName, poolEntry.connection);
+                  checkReady();
                   quietlySleep(30L);
                   break;
                } else {  // failed to get connection from db, sleep and retry
-                  if (loggingPrefix != null && backoffMs % 50 == 0)
+                  // decorrelated jitter, so that pools failing at the same moment do not retry in lockstep
+                  backoffMs = Math.min(MAX_BACKOFF_MS, ThreadLocalRandom.current().nextLong(MIN_BACKOFF_MS, backoffMs * 3 + 1));
+                  if (loggingPrefix != null && backoffMs == MAX_BACKOFF_MS)
                      logger.debug("{} - Connection add failed, sleeping with backoff: {}ms", poolName, backoffMs);
                   quietlySleep(backoffMs);
-                  backoffMs = Math.min(SECONDS.toMillis(5), backoffMs * 2);
                }
             }
          }
@@ -772,13 +1686,25 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
 
       /**
        * We only create connections if we need another idle connection or have threads still waiting
-       * for a new connection.  Otherwise we bail out of the request to create.
+       * for a new connection.  Otherwise we bail out of the request to create.  Connections that other
+       * creators are already opening count towards the need, so that the number of creations in flight
+       * follows the deficit, rather than every creator opening a connection for the same waiter.
        *
-       * @return true if we should create a connection, false if the need has disappeared
+       * @return true if a creation was reserved, false if the need has disappeared
        */
-      private synchronized boolean shouldContinueCreating() {
-         return poolState == POOL_NORMAL && getTotalConnections() < config.getMaximumPoolSize() &&
-            (getIdleConnections() < config.getMinimumIdle() || connectionBag.getWaitingThreadCount() > getIdleConnections());
+      private boolean reserveCreation() {
+         while (true) {
+            final var inFlight = creationsInFlight.get();
+            final var idle = getIdleConnections() + inFlight;
+            final var shouldCreate = poolState == POOL_NORMAL && getTotalConnections() + inFlight < getEffectiveMaximumPoolSize() &&
+               (idle < getTargetIdle() || connectionBag.getWaitingThreadCount() > idle);
+            if (!shouldCreate) {
+               return false;
+            }
+            if (creationsInFlight.compareAndSet(inFlight, inFlight + 1)) {
+               return true;
+            }
+         }
       }
    }
 
@@ -799,6 +1725,7 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             connectionTimeout = config.getConnectionTimeout();
             validationTimeout = config.getValidationTimeout();
             leakTaskFactory.updateLeakDetectionThreshold(config.getLeakDetectionThreshold());
+            connectionBag.ensureCapacity(config.getMaximumPoolSize());
 
             if (config.getCatalog() != null && !config.getCatalog().equals(catalog)) {
                catalogUpdater.set(HikariPool.this, config.getCatalog());
@@ -825,7 +1752,7 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             if (idleTimeout > 0L && config.getMinimumIdle() < config.getMaximumPoolSize()) {
                logPoolState("Before cleanup ");
                final var notInUse = connectionBag.values(STATE_NOT_IN_USE);
-               var maxToRemove = notInUse.size() - config.getMinimumIdle();
+               var maxToRemove = notInUse.size() - getTargetIdle();
                for (PoolEntry entry : notInUse) {
                   if (maxToRemove > 0 && elapsedMillis(entry.lastAccessed, now) > idleTimeout && connectionBag.reserve(entry)) {
                      closeConnection(entry, "(connection has passed idleTimeout)");
@@ -837,6 +1764,10 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
             else
                logPoolState("Pool ");
 
+            if (demandTracker != null && config.getMinimumIdle() < config.getMaximumPoolSize()) {
+               trimToDemand();
+            }
+
             fillPool(true); // Try to maintain minimum connections
          }
          catch (Exception e) {
@@ -845,44 +1776,184 @@ public final class HikariPool extends PoolBase implements HikariPoolMXBean, IBag
       }
    }
 
-   private final class MaxLifetimeTask implements Runnable
+   /**
+    * The task that periodically adjusts the adaptive limit on the size of the pool, and closes idle
+    * connections in excess of it.  Active connections in excess of the limit are left to idleTimeout
+    * and maxLifetime.
+    */
+   private final class AdaptiveSizer implements Runnable
    {
-      private final PoolEntry poolEntry;
+      @Override
+      public void run()
+      {
+         try {
+            final var limit = adaptiveLimit.update(getThreadsAwaitingConnection());
 
-      MaxLifetimeTask(final PoolEntry poolEntry)
+            var surplus = getTotalConnections() - Math.min(limit, config.getMaximumPoolSize());
+            for (PoolEntry entry : connectionBag.values(STATE_NOT_IN_USE)) {
+               if (surplus <= 0) {
+                  break;
+               }
+               if (connectionBag.reserve(entry)) {
+                  closeConnection(entry, "(connection exceeds adaptive pool size)");
+                  surplus--;
+               }
+            }
+         }
+         catch (Exception e) {
+            logger.error("Unexpected exception in adaptive sizing task", e);
+         }
+      }
+   }
+
+   /**
+    * The task that validates idle connections ahead of their borrowers.  A connection is validated when, by the
+    * next run of the task, it would no longer be borrowed without validation.  It is reserved while it is
+    * validated, so that borrowers skip it rather than wait for it.
+    */
+   private final class BackgroundValidator implements Runnable
+   {
+      @Override
+      public void run()
       {
-         this.poolEntry = poolEntry;
+         try {
+            for (PoolEntry entry : connectionBag.values(STATE_NOT_IN_USE)) {
+               if (poolState != POOL_NORMAL) {
+                  break;
+               }
+
+               final var horizon = plusMillis(currentTime(), backgroundValidationPeriodMs);
+               if (elapsedMillis(entry.lastAccessed, horizon) <= aliveBypassWindowMs || entry.isProvenAlive(horizon, lastDeadConnection)
+                  || !connectionBag.reserve(entry)) {
+                  continue;
+               }
+
+               if (isConnectionDead(entry)) {
+                  recordDeadConnection();
+                  softEvictConnection(entry, DEAD_CONNECTION_MESSAGE, true);
+                  addBagItem(connectionBag.getWaitingThreadCount());
+               }
+               else {
+                  entry.markValidated(currentTime(), provenAliveWindowMs);
+                  connectionBag.unreserve(entry);
+               }
+            }
+         }
+         catch (Exception e) {
+            logger.error("Unexpected exception in background validation task", e);
+         }
       }
+   }
 
+   /**
+    * The task that periodically samples the demand for connections, for demand-driven shrinking and for the
+    * demand profile, and opens connections when the profile predicts a rise in demand.
+    */
+   private final class DemandSampler implements Runnable
+   {
+      @Override
       public void run()
       {
-         if (softEvictConnection(poolEntry, "(connection has passed maxLifetime)", false /* not owner */)) {
-            addBagItem(connectionBag.getWaitingThreadCount());
+         try {
+            final var demand = getActiveConnections() + getThreadsAwaitingConnection();
+            if (demandTracker != null) {
+               demandTracker.sample(demand);
+            }
+
+            if (demandProfile != null) {
+               final var minuteOfWeek = DemandProfile.minuteOfWeek(ZonedDateTime.now());
+               demandProfile.sample(demand, minuteOfWeek);
+
+               final var previous = prewarmTarget;
+               prewarmTarget = demandProfile.predict(minuteOfWeek);
+               if (prewarmTarget > previous && poolState == POOL_NORMAL) {
+                  fillPool(false);
+               }
+            }
+         }
+         catch (Exception e) {
+            logger.error("Unexpected exception in demand sampling task", e);
          }
       }
    }
 
-   private final class KeepaliveTask implements Runnable
+   private final class MaxLifetimeTask implements Runnable
    {
       private final PoolEntry poolEntry;
 
-      KeepaliveTask(final PoolEntry poolEntry)
+      MaxLifetimeTask(final PoolEntry poolEntry)
       {
          this.poolEntry = poolEntry;
       }
 
       public void run()
       {
-         if (connectionBag.reserve(poolEntry)) {
-            if (isConnectionDead(poolEntry.connection)) {
+         retireConnection(poolEntry, "(connection has passed maxLifetime)");
+      }
+   }
+
+   /**
+    * The task that keeps idle connections alive.  On each run it reserves the idle connections that have not been
+    * proven alive within the keepalive time, and validates them concurrently on the keepalive executor.  Fewer than
+    * half of the idle connections are out of the pool for a keepalive at any time, and none are taken while
+    * threads are waiting for a connection.
+    */
+   private final class KeepaliveSweeper implements Runnable
+   {
+      @Override
+      public void run()
+      {
+         try {
+            final var keepaliveTime = config.getKeepaliveTime();
+            if (keepaliveTime <= 0 || poolState != POOL_NORMAL) {
+               return;
+            }
+
+            final var idleEntries = connectionBag.values(STATE_NOT_IN_USE);
+            final var limit = Math.min(keepaliveParallelism, Math.max(1, idleEntries.size() / 2));
+            final var now = currentTime();
+            for (PoolEntry entry : idleEntries) {
+               if (keepalivesInFlight.get() >= limit || connectionBag.getWaitingThreadCount() > 0) {
+                  break;
+               }
+
+               if (elapsedMillis(entry.lastProvenAlive, now) >= keepaliveTime - entry.keepaliveVariance && connectionBag.reserve(entry)) {
+                  keepalivesInFlight.incrementAndGet();
+                  try {
+                     keepaliveExecutor.execute(() -> keepalive(entry));
+                  }
+                  catch (RejectedExecutionException e) {
+                     keepalivesInFlight.decrementAndGet();
+                     connectionBag.unreserve(entry);
+                     break;
+                  }
+               }
+            }
+         }
+         catch (Exception e) {
+            logger.error("Unexpected exception in keepalive task", e);
+         }
+      }
+
+      private void keepalive(final PoolEntry poolEntry)
+      {
+         try {
+            final var startTime = currentTime();
+            if (isConnectionDead(poolEntry)) {
+               recordDeadConnection();
                softEvictConnection(poolEntry, DEAD_CONNECTION_MESSAGE, true);
                addBagItem(connectionBag.getWaitingThreadCount());
             }
             else {
+               metricsTracker.recordKeepalive(startTime);
+               poolEntry.markValidated(currentTime(), provenAliveWindowMs);
                connectionBag.unreserve(poolEntry);
                logger.debug("{} - keepalive: connection {} is alive", poolName, poolEntry.connection);
             }
          }
+         finally {
+            keepalivesInFlight.decrementAndGet();
+         }
       }
    }
 
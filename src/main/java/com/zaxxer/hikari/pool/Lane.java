@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A named bulkhead within a pool.  A lane does not own any connections; it only limits how
+ * many of the pool's connections may be borrowed through it at once, so that one workload
+ * cannot take every connection from the others.  While the lane is under its quota, taking
+ * a permit is a single CAS; only a borrower that finds the quota exhausted waits.
+ */
+final class Lane
+{
+   final String name;
+   final int maxConnections;
+   private final Semaphore permits;
+
+   Lane(final String name, final int maxConnections)
+   {
+      this.name = name;
+      this.maxConnections = maxConnections;
+      this.permits = new Semaphore(maxConnections);
+   }
+
+   /**
+    * Take a permit to borrow a connection through this lane, waiting up to the specified timeout
+    * for one to be released if the quota is exhausted.
+    *
+    * @param timeoutMs the maximum time to wait, in milliseconds
+    * @return true if a permit was taken, false if the timeout elapsed first
+    * @throws InterruptedException if interrupted while waiting
+    */
+   boolean acquire(final long timeoutMs) throws InterruptedException
+   {
+      return permits.tryAcquire() || permits.tryAcquire(timeoutMs, MILLISECONDS);
+   }
+
+   void release()
+   {
+      permits.release();
+   }
+
+   int getActiveConnections()
+   {
+      return maxConnections - permits.availablePermits();
+   }
+
+   @Override
+   public String toString()
+   {
+      return name + " (max=" + maxConnections + ", active=" + getActiveConnections() + ")";
+   }
+}
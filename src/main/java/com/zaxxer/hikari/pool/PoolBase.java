@@ -16,7 +16,9 @@
 
 package com.zaxxer.hikari.pool;
 
+import com.zaxxer.hikari.ConnectionState;
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.Priority;
 import com.zaxxer.hikari.SQLExceptionOverride;
 import com.zaxxer.hikari.metrics.IMetricsTracker;
 import com.zaxxer.hikari.pool.HikariPool.PoolInitializationException;
@@ -87,6 +89,7 @@ abstract class PoolBase
 
    private final boolean isUseJdbc4Validation;
    private final boolean isIsolateInternalQueries;
+   final boolean isDeferStateReset;
 
    private volatile boolean isValidChecked;
 
@@ -106,6 +109,7 @@ abstract class PoolBase
       this.isNetworkTimeoutSupported = UNINITIALIZED;
       this.isUseJdbc4Validation = config.getConnectionTestQuery() == null;
       this.isIsolateInternalQueries = config.isIsolateInternalQueries();
+      this.isDeferStateReset = config.isDeferStateReset();
 
       this.poolName = config.getPoolName();
       this.connectionTimeout = config.getConnectionTimeout();
@@ -149,7 +153,21 @@ abstract class PoolBase
       }
    }
 
-   boolean isConnectionDead(final Connection connection)
+   /**
+    * Validate the connection of an entry.  The validation leaves the connection with the pool's default network timeout,
+    * so a deferred reset of the network timeout is no longer needed.
+    *
+    * @param poolEntry the entry
+    * @return true if the connection is dead
+    */
+   boolean isConnectionDead(final PoolEntry poolEntry)
+   {
+      final var isDead = isConnectionDead(poolEntry.connection, poolEntry.getAutoCommitState());
+      poolEntry.deferredResetBits &= ~DIRTY_BIT_NETTIMEOUT;
+      return isDead;
+   }
+
+   private boolean isConnectionDead(final Connection connection, final boolean autoCommit)
    {
       try {
          setNetworkTimeout(connection, validationTimeout);
@@ -171,7 +189,9 @@ abstract class PoolBase
          finally {
             setNetworkTimeout(connection, networkTimeout);
 
-            if (isIsolateInternalQueries && !isAutoCommit) {
+            // end the transaction of the test query, whether the pool isolates internal queries or the connection
+            // was left outside of auto-commit by a borrower whose state reset is deferred
+            if (!autoCommit && (isIsolateInternalQueries || isAutoCommit)) {
                connection.rollback();
             }
          }
@@ -205,46 +225,122 @@ abstract class PoolBase
       return new PoolEntry(newConnection(isEmptyPool), this, isReadOnly, isAutoCommit);
    }
 
-   void resetConnectionState(final Connection connection, final ProxyConnection proxyConnection, final int dirtyBits) throws SQLException
+   /**
+    * Determine which of the dirty states of a connection differ from the pool's defaults, and so must be reset before
+    * the connection is used by another borrower.
+    *
+    * @param proxyConnection the proxy connection holding the state of the connection
+    * @param dirtyBits the states changed since the connection was last reset
+    * @return the states to reset
+    */
+   int getResetBits(final ProxyConnection proxyConnection, final int dirtyBits)
    {
       int resetBits = 0;
 
       if ((dirtyBits & DIRTY_BIT_READONLY) != 0 && proxyConnection.getReadOnlyState() != isReadOnly) {
-         connection.setReadOnly(isReadOnly);
          resetBits |= DIRTY_BIT_READONLY;
       }
 
       if ((dirtyBits & DIRTY_BIT_AUTOCOMMIT) != 0 && proxyConnection.getAutoCommitState() != isAutoCommit) {
-         connection.setAutoCommit(isAutoCommit);
          resetBits |= DIRTY_BIT_AUTOCOMMIT;
       }
 
       if ((dirtyBits & DIRTY_BIT_ISOLATION) != 0 && proxyConnection.getTransactionIsolationState() != transactionIsolation) {
-         //noinspection MagicConstant
-         connection.setTransactionIsolation(transactionIsolation);
          resetBits |= DIRTY_BIT_ISOLATION;
       }
 
       if ((dirtyBits & DIRTY_BIT_CATALOG) != 0 && catalog != null && !catalog.equals(proxyConnection.getCatalogState())) {
-         connection.setCatalog(catalog);
          resetBits |= DIRTY_BIT_CATALOG;
       }
 
       if ((dirtyBits & DIRTY_BIT_NETTIMEOUT) != 0 && proxyConnection.getNetworkTimeoutState() != networkTimeout) {
-         setNetworkTimeout(connection, networkTimeout);
          resetBits |= DIRTY_BIT_NETTIMEOUT;
       }
 
       if ((dirtyBits & DIRTY_BIT_SCHEMA) != 0 && schema != null && !schema.equals(proxyConnection.getSchemaState())) {
-         connection.setSchema(schema);
          resetBits |= DIRTY_BIT_SCHEMA;
       }
 
+      return resetBits;
+   }
+
+   void resetConnectionState(final Connection connection, final ProxyConnection proxyConnection, final int dirtyBits) throws SQLException
+   {
+      final var resetBits = getResetBits(proxyConnection, dirtyBits);
+
+      if ((resetBits & DIRTY_BIT_READONLY) != 0) {
+         connection.setReadOnly(isReadOnly);
+      }
+
+      if ((resetBits & DIRTY_BIT_AUTOCOMMIT) != 0) {
+         connection.setAutoCommit(isAutoCommit);
+      }
+
+      if ((resetBits & DIRTY_BIT_ISOLATION) != 0) {
+         //noinspection MagicConstant
+         connection.setTransactionIsolation(transactionIsolation);
+      }
+
+      if ((resetBits & DIRTY_BIT_CATALOG) != 0) {
+         connection.setCatalog(catalog);
+      }
+
+      if ((resetBits & DIRTY_BIT_NETTIMEOUT) != 0) {
+         setNetworkTimeout(connection, networkTimeout);
+      }
+
+      if ((resetBits & DIRTY_BIT_SCHEMA) != 0) {
+         connection.setSchema(schema);
+      }
+
       if (resetBits != 0 && logger.isDebugEnabled()) {
          logger.debug("{} - Reset ({}) on connection {}", poolName, stringFromResetBits(resetBits), connection);
       }
    }
 
+   /**
+    * Determine which of the states wanted by a borrower differ from the state of the connection of an entry, that is
+    * the state left on it by its last borrower where it was not reset, or otherwise the pool's defaults.
+    *
+    * @param poolEntry the entry
+    * @param wanted the state wanted by the borrower
+    * @return the states that must be set on the connection
+    */
+   int getStateDiff(final PoolEntry poolEntry, final ConnectionState wanted)
+   {
+      final var deferredBits = poolEntry.deferredResetBits;
+      final var retainedBits = poolEntry.retainedBits;
+      int diffBits = 0;
+
+      final var wantedReadOnly = wanted.getReadOnly();
+      if (wantedReadOnly != null && wantedReadOnly != ((deferredBits & DIRTY_BIT_READONLY) != 0 ? poolEntry.deferredReadOnly : isReadOnly)) {
+         diffBits |= DIRTY_BIT_READONLY;
+      }
+
+      final var wantedIsolation = wanted.getTransactionIsolation();
+      if (wantedIsolation != -1 && wantedIsolation != ((deferredBits & DIRTY_BIT_ISOLATION) != 0 ? poolEntry.deferredIsolation : transactionIsolation)) {
+         diffBits |= DIRTY_BIT_ISOLATION;
+      }
+
+      final var wantedCatalog = wanted.getCatalog();
+      if (wantedCatalog != null) {
+         final var hasCatalog = (deferredBits & DIRTY_BIT_CATALOG) != 0 || (catalog == null && (retainedBits & DIRTY_BIT_CATALOG) != 0);
+         if (!wantedCatalog.equals(hasCatalog ? poolEntry.deferredCatalog : catalog)) {
+            diffBits |= DIRTY_BIT_CATALOG;
+         }
+      }
+
+      final var wantedSchema = wanted.getSchema();
+      if (wantedSchema != null) {
+         final var hasSchema = (deferredBits & DIRTY_BIT_SCHEMA) != 0 || (schema == null && (retainedBits & DIRTY_BIT_SCHEMA) != 0);
+         if (!wantedSchema.equals(hasSchema ? poolEntry.deferredSchema : schema)) {
+            diffBits |= DIRTY_BIT_SCHEMA;
+         }
+      }
+
+      return diffBits;
+   }
+
    void shutdownNetworkTimeoutExecutor()
    {
       isNetworkTimeoutSupported = UNINITIALIZED;
@@ -705,12 +801,22 @@ abstract class PoolBase
 
       default void recordConnectionCreated(long connectionCreatedMillis) {}
 
-      default void recordBorrowTimeoutStats(long startTime) {}
+      default void recordBorrowTimeoutStats(long startTime, Priority priority) {}
 
-      default void recordBorrowStats(final PoolEntry poolEntry, final long startTime) {}
+      default void recordBorrowStats(final PoolEntry poolEntry, final long startTime, final Priority priority) {}
 
       default void recordConnectionTimeout() {}
 
+      default void recordConnectionRejected() {}
+
+      default void recordConnectionCreationThrottled() {}
+
+      default void recordKeepalive(long startTime) {}
+
+      default void recordLaneTimeout(Lane lane) {}
+
+      default void recordStateAffinity(boolean hit) {}
+
       @Override
       default void close() {}
    }
@@ -742,17 +848,20 @@ abstract class PoolBase
       }
 
       @Override
-      public void recordBorrowTimeoutStats(long startTime)
+      public void recordBorrowTimeoutStats(long startTime, Priority priority)
       {
-         tracker.recordConnectionAcquiredNanos(elapsedNanos(startTime));
+         tracker.recordConnectionAcquiredNanos(elapsedNanos(startTime), priority);
       }
 
       @Override
-      public void recordBorrowStats(final PoolEntry poolEntry, final long startTime)
+      public void recordBorrowStats(final PoolEntry poolEntry, final long startTime, final Priority priority)
       {
          final var now = currentTime();
          poolEntry.lastBorrowed = now;
-         tracker.recordConnectionAcquiredNanos(elapsedNanos(startTime, now));
+         tracker.recordConnectionAcquiredNanos(elapsedNanos(startTime, now), priority);
+         if (poolEntry.lane != null) {
+            tracker.recordLaneConnectionAcquiredNanos(poolEntry.lane.name, elapsedNanos(startTime, now));
+         }
       }
 
       @Override
@@ -760,6 +869,36 @@ abstract class PoolBase
          tracker.recordConnectionTimeout();
       }
 
+      @Override
+      public void recordConnectionRejected()
+      {
+         tracker.recordConnectionRejected();
+      }
+
+      @Override
+      public void recordConnectionCreationThrottled()
+      {
+         tracker.recordConnectionCreationThrottled();
+      }
+
+      @Override
+      public void recordKeepalive(final long startTime)
+      {
+         tracker.recordKeepaliveNanos(elapsedNanos(startTime));
+      }
+
+      @Override
+      public void recordLaneTimeout(final Lane lane)
+      {
+         tracker.recordLaneConnectionTimeout(lane.name);
+      }
+
+      @Override
+      public void recordStateAffinity(final boolean hit)
+      {
+         tracker.recordConnectionStateAffinity(hit);
+      }
+
       @Override
       public void close()
       {
@@ -26,6 +26,9 @@ import java.sql.Statement;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import static com.zaxxer.hikari.pool.ProxyConnection.DIRTY_BIT_AUTOCOMMIT;
+import static com.zaxxer.hikari.pool.ProxyConnection.DIRTY_BIT_CATALOG;
+import static com.zaxxer.hikari.pool.ProxyConnection.DIRTY_BIT_SCHEMA;
 import static com.zaxxer.hikari.util.ClockSource.*;
 import static com.zaxxer.hikari.util.ClockSource.currentTime;
 
@@ -42,13 +45,32 @@ final class PoolEntry implements IConcurrentBagEntry
    Connection connection;
    long lastAccessed;
    long lastBorrowed;
+   volatile long lastProvenAlive;
+   long keepaliveVariance;
+   Lane lane;
+
+   // the state left on the connection by its last borrower, where it differs from the pool's defaults, while the
+   // reset of that state is deferred to the next borrower
+   int deferredResetBits;
+   boolean deferredReadOnly;
+   boolean deferredAutoCommit;
+   int deferredIsolation;
+   String deferredCatalog;
+   int deferredNetworkTimeout;
+   String deferredSchema;
+   // the catalog and schema set on the connection by a borrower, recorded in the fields above, which are kept on the
+   // connection if the pool has no default to reset them to
+   int retainedBits;
 
    @SuppressWarnings("FieldCanBeLocal")
    private volatile int state = 0;
    private volatile boolean evict;
 
    private volatile ScheduledFuture<?> endOfLife;
-   private volatile ScheduledFuture<?> keepalive;
+
+   // how long after it was last proven alive the connection may skip validation, adapted to its failure history
+   private volatile long aliveWindowMs;
+   private long baseAliveWindowMs;
 
    private final FastList<Statement> openStatements;
    private final HikariPool hikariPool;
@@ -68,6 +90,7 @@ final class PoolEntry implements IConcurrentBagEntry
       this.isReadOnly = isReadOnly;
       this.isAutoCommit = isAutoCommit;
       this.lastAccessed = currentTime();
+      this.lastProvenAlive = lastAccessed;
       this.openStatements = new FastList<>(Statement.class, 16);
    }
 
@@ -76,6 +99,13 @@ final class PoolEntry implements IConcurrentBagEntry
     */
    void recycle()
    {
+      // give up the lane permit before the connection can be borrowed by anyone else
+      final var borrowedLane = lane;
+      if (borrowedLane != null) {
+         lane = null;
+         borrowedLane.release();
+      }
+
       if (connection != null) {
          this.lastAccessed = currentTime();
          hikariPool.recycle(this);
@@ -92,18 +122,127 @@ final class PoolEntry implements IConcurrentBagEntry
       this.endOfLife = endOfLife;
    }
 
-   public void setKeepalive(ScheduledFuture<?> keepalive) {
-      this.keepalive = keepalive;
+   /**
+    * Set the initial window during which a connection proven alive may skip validation when it is borrowed.
+    *
+    * @param windowMs the window, in milliseconds
+    */
+   void setAliveWindow(final long windowMs)
+   {
+      this.baseAliveWindowMs = windowMs;
+      this.aliveWindowMs = windowMs;
+   }
+
+   /**
+    * Record that a statement executed successfully on the connection, which proves it alive as well as a
+    * validation would have.  This is called for every statement executed, so the proof is only renewed once
+    * it is older than a quarter of the window, and not at all if the window is disabled.
+    */
+   void markAlive()
+   {
+      final var windowMs = aliveWindowMs;
+      if (windowMs > 0) {
+         final var now = currentTime();
+         if (elapsedMillis(lastProvenAlive, now) >= windowMs >> 2) {
+            this.lastProvenAlive = now;
+         }
+      }
+   }
+
+   /**
+    * Record a successful validation of the connection.  Each one doubles the window during which the connection
+    * may skip the next validation, up to the specified maximum.
+    *
+    * @param now the time of the validation
+    * @param maxWindowMs the maximum window, in milliseconds
+    */
+   void markValidated(final long now, final long maxWindowMs)
+   {
+      this.lastProvenAlive = now;
+      this.aliveWindowMs = Math.max(baseAliveWindowMs, Math.min(maxWindowMs, aliveWindowMs * 2));
+   }
+
+   /**
+    * Record that an operation on the connection failed, which shrinks the window during which it may skip
+    * validation back to its initial value.
+    */
+   void markSuspect()
+   {
+      this.aliveWindowMs = baseAliveWindowMs;
+   }
+
+   /**
+    * Determine whether the connection was proven alive recently enough to skip validation.
+    *
+    * @param now the current time
+    * @param notBefore the time before which proof is not trusted, such as the last time a dead connection was found
+    * @return true if the connection was proven alive within its window, and after notBefore
+    */
+   boolean isProvenAlive(final long now, final long notBefore)
+   {
+      final var provenAlive = lastProvenAlive;
+      return provenAlive - notBefore > 0 && elapsedMillis(provenAlive, now) <= aliveWindowMs;
    }
 
    Connection createProxyConnection(final ProxyLeakTask leakTask)
    {
-      return ProxyFactory.getProxyConnection(this, connection, openStatements, leakTask, isReadOnly, isAutoCommit);
+      final var proxyConnection = ProxyFactory.getProxyConnection(this, connection, openStatements, leakTask, isReadOnly, isAutoCommit);
+      // the proxy connection has taken over any deferred reset, and records it again when it is closed
+      deferredResetBits = 0;
+      return proxyConnection;
    }
 
+   /**
+    * Reset the state of the connection when it is returned to the pool, or, if the pool defers the reset, record
+    * the state that differs from the pool's defaults so that the next borrower resets it, or overrides it.
+    *
+    * @param proxyConnection the proxy connection being closed
+    * @param dirtyBits the states changed by the borrower, or still awaiting a deferred reset
+    * @throws SQLException if the reset fails
+    */
    void resetConnectionState(final ProxyConnection proxyConnection, final int dirtyBits) throws SQLException
    {
-      hikariPool.resetConnectionState(connection, proxyConnection, dirtyBits);
+      if ((dirtyBits & DIRTY_BIT_CATALOG) != 0) {
+         deferredCatalog = proxyConnection.getCatalogState();
+      }
+      if ((dirtyBits & DIRTY_BIT_SCHEMA) != 0) {
+         deferredSchema = proxyConnection.getSchemaState();
+      }
+      retainedBits |= dirtyBits & (DIRTY_BIT_CATALOG | DIRTY_BIT_SCHEMA);
+
+      if (!hikariPool.isDeferStateReset) {
+         hikariPool.resetConnectionState(connection, proxyConnection, dirtyBits);
+         return;
+      }
+
+      deferredReadOnly = proxyConnection.getReadOnlyState();
+      deferredAutoCommit = proxyConnection.getAutoCommitState();
+      deferredIsolation = proxyConnection.getTransactionIsolationState();
+      deferredNetworkTimeout = proxyConnection.getNetworkTimeoutState();
+      deferredResetBits = hikariPool.getResetBits(proxyConnection, dirtyBits);
+   }
+
+   /**
+    * Apply a deferred reset of the state of the connection, before the borrower uses it.
+    *
+    * @param proxyConnection the proxy connection holding the state left by the previous borrower
+    * @param deferredBits the states to reset
+    * @throws SQLException if the reset fails
+    */
+   void applyDeferredReset(final ProxyConnection proxyConnection, final int deferredBits) throws SQLException
+   {
+      hikariPool.resetConnectionState(connection, proxyConnection, deferredBits);
+      proxyConnection.restoreDefaultState(deferredBits, isReadOnly, isAutoCommit);
+   }
+
+   /**
+    * Get the auto-commit state of the connection, which differs from the pool's default while its reset is deferred.
+    *
+    * @return the auto-commit state of the connection
+    */
+   boolean getAutoCommitState()
+   {
+      return (deferredResetBits & DIRTY_BIT_AUTOCOMMIT) != 0 ? deferredAutoCommit : isAutoCommit;
    }
 
    String getPoolName()
@@ -123,6 +262,7 @@ final class PoolEntry implements IConcurrentBagEntry
 
    void evict(final String closureReason)
    {
+      hikariPool.recordDeadConnection();
       hikariPool.closeConnection(this, closureReason);
    }
 
@@ -172,6 +312,13 @@ final class PoolEntry implements IConcurrentBagEntry
       stateUpdater.set(this, update);
    }
 
+   /** {@inheritDoc} */
+   @Override
+   public long getLastAccessed()
+   {
+      return lastAccessed;
+   }
+
    Connection close()
    {
       var eol = endOfLife;
@@ -179,15 +326,9 @@ final class PoolEntry implements IConcurrentBagEntry
          LOGGER.warn("{} - maxLifeTime expiration task cancellation unexpectedly returned false for connection {}", getPoolName(), connection);
       }
 
-      var ka = keepalive;
-      if (ka != null && !ka.isDone() && !ka.cancel(false)) {
-         LOGGER.warn("{} - keepalive task cancellation unexpectedly returned false for connection {}", getPoolName(), connection);
-      }
-
       var con = connection;
       connection = null;
       endOfLife = null;
-      keepalive = null;
       return con;
    }
 
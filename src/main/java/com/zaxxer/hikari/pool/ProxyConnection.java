@@ -16,6 +16,7 @@
 
 package com.zaxxer.hikari.pool;
 
+import com.zaxxer.hikari.ConnectionState;
 import com.zaxxer.hikari.util.FastList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +25,12 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.zaxxer.hikari.SQLExceptionOverride.Override.*;
 
@@ -53,8 +58,10 @@ public abstract class ProxyConnection implements Connection
    private final PoolEntry poolEntry;
    private final ProxyLeakTask leakTask;
    private final FastList<Statement> openStatements;
+   private final ReentrantLock statementLock;
 
    private int dirtyBits;
+   private int deferredResetBits;
    private boolean isCommitStateDirty;
 
    private boolean isReadOnly;
@@ -92,9 +99,21 @@ public abstract class ProxyConnection implements Connection
       this.poolEntry = poolEntry;
       this.delegate = connection;
       this.openStatements = openStatements;
+      this.statementLock = new ReentrantLock();
       this.leakTask = leakTask;
       this.isReadOnly = isReadOnly;
       this.isAutoCommit = isAutoCommit;
+
+      // until it is reset or overridden, the connection keeps the state left by its previous borrower
+      this.deferredResetBits = poolEntry.deferredResetBits;
+      if (deferredResetBits != 0) {
+         this.isReadOnly = (deferredResetBits & DIRTY_BIT_READONLY) != 0 ? poolEntry.deferredReadOnly : isReadOnly;
+         this.isAutoCommit = (deferredResetBits & DIRTY_BIT_AUTOCOMMIT) != 0 ? poolEntry.deferredAutoCommit : isAutoCommit;
+         this.transactionIsolation = poolEntry.deferredIsolation;
+         this.dbcatalog = poolEntry.deferredCatalog;
+         this.networkTimeout = poolEntry.deferredNetworkTimeout;
+         this.dbschema = poolEntry.deferredSchema;
+      }
    }
 
    /** {@inheritDoc} */
@@ -173,7 +192,10 @@ public abstract class ProxyConnection implements Connection
          }
       }
 
-      if (evict) {
+      if (!evict) {
+         poolEntry.markSuspect();
+      }
+      else {
          var exception = (nse != null) ? nse : sqle;
          LOGGER.warn("{} - Connection {} marked as broken because of SQLSTATE({}), ErrorCode({})",
             poolEntry.getPoolName(), delegate, exception.getSQLState(), exception.getErrorCode(), exception);
@@ -185,9 +207,65 @@ public abstract class ProxyConnection implements Connection
       return sqle;
    }
 
-   final synchronized void untrackStatement(final Statement statement)
+   final void untrackStatement(final Statement statement)
    {
-      openStatements.remove(statement);
+      statementLock.lock();
+      try {
+         openStatements.remove(statement);
+      }
+      finally {
+         statementLock.unlock();
+      }
+   }
+
+   final void restoreDefaultState(final int resetBits, final boolean readOnly, final boolean autoCommit)
+   {
+      if ((resetBits & DIRTY_BIT_READONLY) != 0) {
+         isReadOnly = readOnly;
+      }
+      if ((resetBits & DIRTY_BIT_AUTOCOMMIT) != 0) {
+         isAutoCommit = autoCommit;
+      }
+   }
+
+   /**
+    * Reset the state left on the connection by its previous borrower, unless this borrower has overridden it, before
+    * the connection is used.  The generated proxy calls this before each method it delegates to the driver.
+    *
+    * @throws SQLException if the reset fails
+    */
+   final void applyDeferredReset() throws SQLException
+   {
+      final var bits = deferredResetBits;
+      if (bits != 0) {
+         deferredResetBits = 0;
+         poolEntry.applyDeferredReset(this, bits);
+      }
+   }
+
+   /**
+    * Give the connection the state wanted by its borrower.  Only the states that differ from those of the connection
+    * are set on it, and those it already has are taken over from a deferred reset.
+    *
+    * @param wanted the state wanted by the borrower
+    * @param diffBits the states that differ from those of the connection
+    * @throws SQLException if setting the state fails
+    */
+   final void applyState(final ConnectionState wanted, final int diffBits) throws SQLException
+   {
+      final var bits = diffBits | deferredResetBits;
+      if ((bits & DIRTY_BIT_READONLY) != 0 && wanted.getReadOnly() != null) {
+         setReadOnly(wanted.getReadOnly());
+      }
+      if ((bits & DIRTY_BIT_ISOLATION) != 0 && wanted.getTransactionIsolation() != -1) {
+         setTransactionIsolation(wanted.getTransactionIsolation());
+      }
+      if ((bits & DIRTY_BIT_CATALOG) != 0 && wanted.getCatalog() != null) {
+         setCatalog(wanted.getCatalog());
+      }
+      if ((bits & DIRTY_BIT_SCHEMA) != 0 && wanted.getSchema() != null) {
+         setSchema(wanted.getSchema());
+      }
    }
 
    final void markCommitStateDirty()
@@ -197,37 +275,55 @@ public abstract class ProxyConnection implements Connection
       }
    }
 
+   final void markAlive()
+   {
+      poolEntry.markAlive();
+   }
+
    void cancelLeakTask()
    {
       leakTask.cancel();
    }
 
-   private synchronized <T extends Statement> T trackStatement(final T statement)
+   private <T extends Statement> T trackStatement(final T statement)
    {
-      openStatements.add(statement);
+      statementLock.lock();
+      try {
+         openStatements.add(statement);
+      }
+      finally {
+         statementLock.unlock();
+      }
 
       return statement;
    }
 
    @SuppressWarnings("EmptyTryBlock")
-   private synchronized void closeStatements()
-   {
-      final var size = openStatements.size();
-      if (size > 0) {
-         for (int i = 0; i < size && delegate != ClosedConnection.CLOSED_CONNECTION; i++) {
-            try (Statement ignored = openStatements.get(i)) {
-               // automatic resource cleanup
+   private void closeStatements()
+   {
+      // a j.u.c. lock rather than a monitor, so that a virtual thread blocked in driver I/O does not pin its carrier
+      statementLock.lock();
+      try {
+         final var size = openStatements.size();
+         if (size > 0) {
+            for (int i = 0; i < size && delegate != ClosedConnection.CLOSED_CONNECTION; i++) {
+               try (Statement ignored = openStatements.get(i)) {
+                  // automatic resource cleanup
+               }
+               catch (SQLException e) {
+                  LOGGER.warn("{} - Connection {} marked as broken because of an exception closing open statements during Connection.close()",
+                              poolEntry.getPoolName(), delegate);
+                  leakTask.cancel();
+                  poolEntry.evict("(exception closing Statements during Connection.close())");
+                  delegate = ClosedConnection.CLOSED_CONNECTION;
+               }
             }
-            catch (SQLException e) {
-               LOGGER.warn("{} - Connection {} marked as broken because of an exception closing open statements during Connection.close()",
-                           poolEntry.getPoolName(), delegate);
-               leakTask.cancel();
-               poolEntry.evict("(exception closing Statements during Connection.close())");
-               delegate = ClosedConnection.CLOSED_CONNECTION;
-            }
-         }
 
-         openStatements.clear();
+            openStatements.clear();
+         }
+      }
+      finally {
+         statementLock.unlock();
       }
    }
 
@@ -251,8 +347,9 @@ public abstract class ProxyConnection implements Connection
                LOGGER.debug("{} - Executed rollback on connection {} due to dirty commit state on close().", poolEntry.getPoolName(), delegate);
             }
 
-            if (dirtyBits != 0) {
-               poolEntry.resetConnectionState(this, dirtyBits);
+            final var stateBits = dirtyBits | deferredResetBits;
+            if (stateBits != 0) {
+               poolEntry.resetConnectionState(this, stateBits);
             }
 
             delegate.clearWarnings();
@@ -282,6 +379,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public Statement createStatement() throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyStatement(this, trackStatement(delegate.createStatement()));
    }
 
@@ -289,6 +387,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public Statement createStatement(int resultSetType, int concurrency) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyStatement(this, trackStatement(delegate.createStatement(resultSetType, concurrency)));
    }
 
@@ -296,6 +395,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public Statement createStatement(int resultSetType, int concurrency, int holdability) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyStatement(this, trackStatement(delegate.createStatement(resultSetType, concurrency, holdability)));
    }
 
@@ -304,6 +404,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public CallableStatement prepareCall(String sql) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyCallableStatement(this, trackStatement(delegate.prepareCall(sql)));
    }
 
@@ -311,6 +412,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public CallableStatement prepareCall(String sql, int resultSetType, int concurrency) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyCallableStatement(this, trackStatement(delegate.prepareCall(sql, resultSetType, concurrency)));
    }
 
@@ -318,6 +420,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public CallableStatement prepareCall(String sql, int resultSetType, int concurrency, int holdability) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyCallableStatement(this, trackStatement(delegate.prepareCall(sql, resultSetType, concurrency, holdability)));
    }
 
@@ -325,6 +428,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql)));
    }
 
@@ -332,6 +436,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql, autoGeneratedKeys)));
    }
 
@@ -339,6 +444,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql, int resultSetType, int concurrency) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql, resultSetType, concurrency)));
    }
 
@@ -346,6 +452,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql, int resultSetType, int concurrency, int holdability) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql, resultSetType, concurrency, holdability)));
    }
 
@@ -353,6 +460,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql, columnIndexes)));
    }
 
@@ -360,6 +468,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException
    {
+      applyDeferredReset();
       return ProxyFactory.getProxyPreparedStatement(this, trackStatement(delegate.prepareStatement(sql, columnNames)));
    }
 
@@ -367,6 +476,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public DatabaseMetaData getMetaData() throws SQLException
    {
+      applyDeferredReset();
       markCommitStateDirty();
       return ProxyFactory.getProxyDatabaseMetaData(this, delegate.getMetaData());
    }
@@ -375,6 +485,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void commit() throws SQLException
    {
+      applyDeferredReset();
       delegate.commit();
       isCommitStateDirty = false;
    }
@@ -383,6 +494,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void rollback() throws SQLException
    {
+      applyDeferredReset();
       delegate.rollback();
       isCommitStateDirty = false;
    }
@@ -391,6 +503,7 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void rollback(Savepoint savepoint) throws SQLException
    {
+      applyDeferredReset();
       delegate.rollback(savepoint);
       isCommitStateDirty = true;
    }
@@ -402,6 +515,10 @@ public abstract class ProxyConnection implements Connection
       if ((dirtyBits & DIRTY_BIT_AUTOCOMMIT) != 0) {
          return isAutoCommit;
       }
+      if ((deferredResetBits & DIRTY_BIT_AUTOCOMMIT) != 0) {
+         // a reset is only deferred for a state that differs from the default, which this borrower sees
+         return !isAutoCommit;
+      }
       return delegate.getAutoCommit();
    }
 
@@ -409,7 +526,11 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setAutoCommit(boolean autoCommit) throws SQLException
    {
-      delegate.setAutoCommit(autoCommit);
+      // the state left by the previous borrower need not be reset if this borrower overrides it, or set if it is the same
+      if ((deferredResetBits & DIRTY_BIT_AUTOCOMMIT) == 0 || autoCommit != isAutoCommit) {
+         delegate.setAutoCommit(autoCommit);
+      }
+      deferredResetBits &= ~DIRTY_BIT_AUTOCOMMIT;
       isAutoCommit = autoCommit;
       dirtyBits |= DIRTY_BIT_AUTOCOMMIT;
    }
@@ -421,6 +542,10 @@ public abstract class ProxyConnection implements Connection
       if ((dirtyBits & DIRTY_BIT_READONLY) != 0) {
          return isReadOnly;
       }
+      if ((deferredResetBits & DIRTY_BIT_READONLY) != 0) {
+         // a reset is only deferred for a state that differs from the default, which this borrower sees
+         return !isReadOnly;
+      }
       return delegate.isReadOnly();
    }
 
@@ -428,7 +553,10 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setReadOnly(boolean readOnly) throws SQLException
    {
-      delegate.setReadOnly(readOnly);
+      if ((deferredResetBits & DIRTY_BIT_READONLY) == 0 || readOnly != isReadOnly) {
+         delegate.setReadOnly(readOnly);
+      }
+      deferredResetBits &= ~DIRTY_BIT_READONLY;
       isReadOnly = readOnly;
       dirtyBits |= DIRTY_BIT_READONLY;
    }
@@ -437,6 +565,9 @@ public abstract class ProxyConnection implements Connection
    @Override
    public int getTransactionIsolation() throws SQLException
    {
+      if ((deferredResetBits & DIRTY_BIT_ISOLATION) != 0) {
+         applyDeferredReset();
+      }
       if ((dirtyBits & DIRTY_BIT_ISOLATION) != 0) {
          return transactionIsolation;
       }
@@ -447,7 +578,10 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setTransactionIsolation(int level) throws SQLException
    {
-      delegate.setTransactionIsolation(level);
+      if ((deferredResetBits & DIRTY_BIT_ISOLATION) == 0 || level != transactionIsolation) {
+         delegate.setTransactionIsolation(level);
+      }
+      deferredResetBits &= ~DIRTY_BIT_ISOLATION;
       transactionIsolation = level;
       dirtyBits |= DIRTY_BIT_ISOLATION;
    }
@@ -456,6 +590,9 @@ public abstract class ProxyConnection implements Connection
    @Override
    public String getCatalog() throws SQLException
    {
+      if ((deferredResetBits & DIRTY_BIT_CATALOG) != 0) {
+         applyDeferredReset();
+      }
       if ((dirtyBits & DIRTY_BIT_CATALOG) != 0) {
          return dbcatalog;
       }
@@ -466,7 +603,10 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setCatalog(String catalog) throws SQLException
    {
-      delegate.setCatalog(catalog);
+      if ((deferredResetBits & DIRTY_BIT_CATALOG) == 0 || !Objects.equals(catalog, dbcatalog)) {
+         delegate.setCatalog(catalog);
+      }
+      deferredResetBits &= ~DIRTY_BIT_CATALOG;
       dbcatalog = catalog;
       dirtyBits |= DIRTY_BIT_CATALOG;
    }
@@ -475,6 +615,9 @@ public abstract class ProxyConnection implements Connection
    @Override
    public int getNetworkTimeout() throws SQLException
    {
+      if ((deferredResetBits & DIRTY_BIT_NETTIMEOUT) != 0) {
+         applyDeferredReset();
+      }
       if ((dirtyBits & DIRTY_BIT_NETTIMEOUT) != 0) {
          return networkTimeout;
       }
@@ -485,7 +628,10 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException
    {
-      delegate.setNetworkTimeout(executor, milliseconds);
+      if ((deferredResetBits & DIRTY_BIT_NETTIMEOUT) == 0 || milliseconds != networkTimeout) {
+         delegate.setNetworkTimeout(executor, milliseconds);
+      }
+      deferredResetBits &= ~DIRTY_BIT_NETTIMEOUT;
       networkTimeout = milliseconds;
       dirtyBits |= DIRTY_BIT_NETTIMEOUT;
    }
@@ -494,6 +640,9 @@ public abstract class ProxyConnection implements Connection
    @Override
    public String getSchema() throws SQLException
    {
+      if ((deferredResetBits & DIRTY_BIT_SCHEMA) != 0) {
+         applyDeferredReset();
+      }
       if ((dirtyBits & DIRTY_BIT_SCHEMA) != 0) {
          return dbschema;
       }
@@ -504,11 +653,53 @@ public abstract class ProxyConnection implements Connection
    @Override
    public void setSchema(String schema) throws SQLException
    {
-      delegate.setSchema(schema);
+      if ((deferredResetBits & DIRTY_BIT_SCHEMA) == 0 || !Objects.equals(schema, dbschema)) {
+         delegate.setSchema(schema);
+      }
+      deferredResetBits &= ~DIRTY_BIT_SCHEMA;
       dbschema = schema;
       dirtyBits |= DIRTY_BIT_SCHEMA;
    }
 
+   /** {@inheritDoc} */
+   @Override
+   public final void setClientInfo(String name, String value) throws SQLClientInfoException
+   {
+      applyDeferredClientInfoReset();
+      delegate.setClientInfo(name, value);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public final void setClientInfo(Properties properties) throws SQLClientInfoException
+   {
+      applyDeferredClientInfoReset();
+      delegate.setClientInfo(properties);
+   }
+
+   /** {@inheritDoc} */
+   @Override
+   public final void abort(Executor executor) throws SQLException
+   {
+      // an aborted connection is not used again, so a deferred reset is not applied to it
+      try {
+         delegate.abort(executor);
+      }
+      catch (SQLException e) {
+         throw checkException(e);
+      }
+   }
+
+   private void applyDeferredClientInfoReset() throws SQLClientInfoException
+   {
+      try {
+         applyDeferredReset();
+      }
+      catch (SQLException e) {
+         throw new SQLClientInfoException(e.getMessage(), e.getSQLState(), e.getErrorCode(), Map.of(), e);
+      }
+   }
+
    /** {@inheritDoc} */
    @Override
    public final boolean isWrapperFor(Class<?> iface) throws SQLException
@@ -521,6 +712,7 @@ public abstract class ProxyConnection implements Connection
    @SuppressWarnings("unchecked")
    public final <T> T unwrap(Class<T> iface) throws SQLException
    {
+      applyDeferredReset();
       if (iface.isInstance(delegate)) {
          return (T) delegate;
       }
@@ -20,6 +20,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import com.zaxxer.hikari.util.TimerWheel;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,7 +46,7 @@ class ProxyLeakTask implements Runnable
    {
       NO_LEAK = new ProxyLeakTask() {
          @Override
-         void schedule(ScheduledExecutorService executorService, long leakDetectionThreshold) {}
+         void schedule(ScheduledExecutorService executorService, TimerWheel timerWheel, long leakDetectionThreshold) {}
 
          @Override
          public void run() {}
@@ -65,9 +67,11 @@ class ProxyLeakTask implements Runnable
    {
    }
 
-   void schedule(ScheduledExecutorService executorService, long leakDetectionThreshold)
+   void schedule(ScheduledExecutorService executorService, TimerWheel timerWheel, long leakDetectionThreshold)
    {
-      scheduledFuture = executorService.schedule(this, leakDetectionThreshold, TimeUnit.MILLISECONDS);
+      scheduledFuture = (timerWheel != null)
+         ? timerWheel.schedule(this, executorService, leakDetectionThreshold, TimeUnit.MILLISECONDS)
+         : executorService.schedule(this, leakDetectionThreshold, TimeUnit.MILLISECONDS);
    }
 
    /** {@inheritDoc} */
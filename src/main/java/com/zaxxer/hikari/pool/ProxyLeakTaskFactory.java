@@ -18,6 +18,8 @@ package com.zaxxer.hikari.pool;
 
 import java.util.concurrent.ScheduledExecutorService;
 
+import com.zaxxer.hikari.util.TimerWheel;
+
 /**
  * A factory for {@link ProxyLeakTask} Runnables that are scheduled in the future to report leaks.
  *
@@ -27,11 +29,18 @@ import java.util.concurrent.ScheduledExecutorService;
 class ProxyLeakTaskFactory
 {
    private ScheduledExecutorService executorService;
+   private TimerWheel timerWheel;
    private long leakDetectionThreshold;
 
    ProxyLeakTaskFactory(final long leakDetectionThreshold, final ScheduledExecutorService executorService)
+   {
+      this(leakDetectionThreshold, executorService, null);
+   }
+
+   ProxyLeakTaskFactory(final long leakDetectionThreshold, final ScheduledExecutorService executorService, final TimerWheel timerWheel)
    {
       this.executorService = executorService;
+      this.timerWheel = timerWheel;
       this.leakDetectionThreshold = leakDetectionThreshold;
    }
 
@@ -47,7 +56,7 @@ class ProxyLeakTaskFactory
 
    private ProxyLeakTask scheduleNewTask(PoolEntry poolEntry) {
       var task = new ProxyLeakTask(poolEntry);
-      task.schedule(executorService, leakDetectionThreshold);
+      task.schedule(executorService, timerWheel, leakDetectionThreshold);
 
       return task;
    }
@@ -41,7 +41,9 @@ public abstract class ProxyPreparedStatement extends ProxyStatement implements P
    public boolean execute() throws SQLException
    {
       connection.markCommitStateDirty();
-      return ((PreparedStatement) delegate).execute();
+      var result = ((PreparedStatement) delegate).execute();
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -50,6 +52,7 @@ public abstract class ProxyPreparedStatement extends ProxyStatement implements P
    {
       connection.markCommitStateDirty();
       var resultSet = ((PreparedStatement) delegate).executeQuery();
+      connection.markAlive();
       return ProxyFactory.getProxyResultSet(connection, this, resultSet);
    }
 
@@ -58,7 +61,9 @@ public abstract class ProxyPreparedStatement extends ProxyStatement implements P
    public int executeUpdate() throws SQLException
    {
       connection.markCommitStateDirty();
-      return ((PreparedStatement) delegate).executeUpdate();
+      var result = ((PreparedStatement) delegate).executeUpdate();
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -66,6 +71,8 @@ public abstract class ProxyPreparedStatement extends ProxyStatement implements P
    public long executeLargeUpdate() throws SQLException
    {
       connection.markCommitStateDirty();
-      return ((PreparedStatement) delegate).executeLargeUpdate();
+      var result = ((PreparedStatement) delegate).executeLargeUpdate();
+      connection.markAlive();
+      return result;
    }
 }
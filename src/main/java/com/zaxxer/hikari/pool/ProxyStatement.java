@@ -20,6 +20,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * This is the proxy class for {@link Statement}.
@@ -29,10 +30,12 @@ import java.sql.Statement;
  */
 public abstract class ProxyStatement implements Statement
 {
+   private static final AtomicIntegerFieldUpdater<ProxyStatement> CLOSED_UPDATER = AtomicIntegerFieldUpdater.newUpdater(ProxyStatement.class, "closed");
+
    protected final ProxyConnection connection;
    final Statement delegate;
 
-   private boolean isClosed;
+   private volatile int closed;
    private ResultSet proxyResultSet;
 
    ProxyStatement(ProxyConnection connection, Statement statement)
@@ -62,12 +65,8 @@ public abstract class ProxyStatement implements Statement
    @Override
    public final void close() throws SQLException
    {
-      synchronized (this) {
-         if (isClosed) {
-            return;
-         }
-
-         isClosed = true;
+      if (!CLOSED_UPDATER.compareAndSet(this, 0, 1)) {
+         return;
       }
 
       connection.untrackStatement(delegate);
@@ -92,7 +91,9 @@ public abstract class ProxyStatement implements Statement
    public boolean execute(String sql) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.execute(sql);
+      var result = delegate.execute(sql);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -100,7 +101,9 @@ public abstract class ProxyStatement implements Statement
    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.execute(sql, autoGeneratedKeys);
+      var result = delegate.execute(sql, autoGeneratedKeys);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -109,6 +112,7 @@ public abstract class ProxyStatement implements Statement
    {
       connection.markCommitStateDirty();
       ResultSet resultSet = delegate.executeQuery(sql);
+      connection.markAlive();
       return ProxyFactory.getProxyResultSet(connection, this, resultSet);
    }
 
@@ -117,7 +121,9 @@ public abstract class ProxyStatement implements Statement
    public int executeUpdate(String sql) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeUpdate(sql);
+      var result = delegate.executeUpdate(sql);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -125,7 +131,9 @@ public abstract class ProxyStatement implements Statement
    public int[] executeBatch() throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeBatch();
+      var result = delegate.executeBatch();
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -133,7 +141,9 @@ public abstract class ProxyStatement implements Statement
    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeUpdate(sql, autoGeneratedKeys);
+      var result = delegate.executeUpdate(sql, autoGeneratedKeys);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -141,7 +151,9 @@ public abstract class ProxyStatement implements Statement
    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeUpdate(sql, columnIndexes);
+      var result = delegate.executeUpdate(sql, columnIndexes);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -149,7 +161,9 @@ public abstract class ProxyStatement implements Statement
    public int executeUpdate(String sql, String[] columnNames) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeUpdate(sql, columnNames);
+      var result = delegate.executeUpdate(sql, columnNames);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -157,7 +171,9 @@ public abstract class ProxyStatement implements Statement
    public boolean execute(String sql, int[] columnIndexes) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.execute(sql, columnIndexes);
+      var result = delegate.execute(sql, columnIndexes);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -165,7 +181,9 @@ public abstract class ProxyStatement implements Statement
    public boolean execute(String sql, String[] columnNames) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.execute(sql, columnNames);
+      var result = delegate.execute(sql, columnNames);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -173,7 +191,9 @@ public abstract class ProxyStatement implements Statement
    public long[] executeLargeBatch() throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeLargeBatch();
+      var result = delegate.executeLargeBatch();
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -181,7 +201,9 @@ public abstract class ProxyStatement implements Statement
    public long executeLargeUpdate(String sql) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeLargeUpdate(sql);
+      var result = delegate.executeLargeUpdate(sql);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -189,7 +211,9 @@ public abstract class ProxyStatement implements Statement
    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+      var result = delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -197,7 +221,9 @@ public abstract class ProxyStatement implements Statement
    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeLargeUpdate(sql, columnIndexes);
+      var result = delegate.executeLargeUpdate(sql, columnIndexes);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
@@ -205,7 +231,9 @@ public abstract class ProxyStatement implements Statement
    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException
    {
       connection.markCommitStateDirty();
-      return delegate.executeLargeUpdate(sql, columnNames);
+      var result = delegate.executeLargeUpdate(sql, columnNames);
+      connection.markAlive();
+      return result;
    }
 
    /** {@inheritDoc} */
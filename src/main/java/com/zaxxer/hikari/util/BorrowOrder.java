@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.util;
+
+/**
+ * The order in which the {@link ConcurrentBag} selects among idle items when a borrowing
+ * thread has no item of its own to reuse.
+ */
+public enum BorrowOrder
+{
+   /**
+    * Most recently used first (LIFO).  Work concentrates on as few items as possible, so that
+    * rarely used items stay idle long enough to be retired.
+    */
+   MRU,
+
+   /**
+    * Least recently used first (FIFO).  Work is spread evenly across all items.
+    */
+   FIFO,
+
+   /**
+    * Items are selected in slot order starting from a rotating cursor.  Work is spread across
+    * all items without comparing their last access times.
+    */
+   ROUND_ROBIN
+}
@@ -15,36 +15,79 @@
  */
 package com.zaxxer.hikari.util;
 
+import com.zaxxer.hikari.Priority;
 import com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
 import static com.zaxxer.hikari.util.ClockSource.currentTime;
 import static com.zaxxer.hikari.util.ClockSource.elapsedNanos;
+import static com.zaxxer.hikari.util.ClockSource.toNanos;
 import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.*;
-import static java.util.concurrent.TimeUnit.MICROSECONDS;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static com.zaxxer.hikari.util.UtilityElf.isVirtualThread;
 import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
 
 /**
  * This is a specialized concurrent bag that achieves superior performance
  * to LinkedBlockingQueue and LinkedTransferQueue for the purposes of a
  * connection pool.  It uses ThreadLocal storage when possible to avoid
- * locks, but resorts to scanning a common collection if there are no
+ * locks, but resorts to scanning a common slot table if there are no
  * available items in the ThreadLocal list.  Not-in-use items in the
  * ThreadLocal lists can be "stolen" when the borrowing thread has none
- * of its own.  It is a "lock-less" implementation using a specialized
- * AbstractQueuedLongSynchronizer to manage cross-thread signaling.
+ * of its own.  It is a "lock-less" implementation; threads that must
+ * wait for an item enqueue an explicit waiter node and park, and an item
+ * that is returned while threads are waiting is handed directly to exactly
+ * one of those waiters, which is then unparked exactly once.  Asynchronous
+ * borrowers enqueue a waiter whose future is completed by the hand-off
+ * instead, so that no thread is parked on their behalf.
+ * <p>
+ * Waiters are ordered by arrival, or, under the {@link HandoffPolicy#DEADLINE}
+ * policy, by the deadline derived from their borrow timeout, in which case
+ * waiters whose deadline has already passed are dropped from the queue (and
+ * woken immediately) instead of being handed an item they can no longer use.
+ * <p>
+ * Each {@link Priority} class has its own wait queue, and a hand-off is made
+ * to the highest class that has waiters, except that a lower class that has
+ * been passed over a configurable number of times in a row is served next.
+ * <p>
+ * The common slot table is a set of fixed-size atomic arrays.  Items claim
+ * and release slots with a single CAS, and scans iterate the slots in place,
+ * so neither adding, removing nor scanning items copies the table.  A new
+ * segment is appended only when the capacity of the bag is raised.
+ * <p>
+ * Which idle item a borrower receives from the slot table is governed by
+ * the {@link BorrowOrder}: most recently used first, least recently used
+ * first, or round-robin.  Only the MRU order uses the ThreadLocal tier,
+ * since per-thread reuse would defeat the other two.  The MRU order finds
+ * the most recently returned item through a bounded ring of returns, which
+ * is walked from its top until an item can be claimed, falling back to the
+ * first free slot, so that borrowing does not compare every item.
+ * <p>
+ * Virtual threads bypass the ThreadLocal tier entirely, because they are
+ * typically short-lived and numerous and a per-thread cache would rarely
+ * be hit; they borrow straight from the lock-free slot table instead, so
+ * the footprint of the bag does not grow with the number of virtual threads.
+ * <p>
+ * Every state transition of an item is made through the bag, which keeps a
+ * striped counter per state so that item counts can be read in constant time.
  * <p>
  * Note that items that are "borrowed" from the bag are not actually
  * removed from any collection, so garbage collection will not occur
@@ -60,7 +103,14 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
 {
    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentBag.class);
 
-   private final CopyOnWriteArrayList<T> sharedList;
+   private static final int DEFAULT_CAPACITY = 16;
+   private static final int DEFAULT_STARVATION_LIMIT = 8;
+   private static final int MIN_RECENCY_CAPACITY = 16;
+
+   private volatile AtomicReferenceArray<T>[] slotTables;
+   private final AtomicInteger slotCount;
+   private final ReentrantLock growLock;
+   private final LongAdder[] stateCounters;
    private final boolean useWeakThreadLocals;
 
    private final ThreadLocal<List<Object>> threadLocalList;
@@ -68,7 +118,17 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
    private final AtomicInteger waiters;
    private volatile boolean closed;
 
-   private final SynchronousQueue<T> handoffQueue;
+   private final ConcurrentSkipListSet<Waiter>[] waitQueues;
+   private final AtomicLong waiterSequence;
+   private final boolean dropExpiredWaiters;
+   private final AtomicIntegerArray bypassCounts;
+   private final int starvationLimit;
+
+   private final BorrowOrder borrowOrder;
+   private final boolean useThreadLocals;
+   private final AtomicInteger roundRobinCursor;
+   private final AtomicReferenceArray<T> recencyRing;
+   private final AtomicInteger recencyTop;
 
    public interface IConcurrentBagEntry
    {
@@ -80,6 +140,18 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
       boolean compareAndSet(int expectState, int newState);
       void setState(int newState);
       int getState();
+
+      /**
+       * Get the time, as returned by {@link ClockSource#currentTime()}, at which this item was last
+       * returned to the bag.  Used to order borrows; items that do not track it are treated as
+       * equally recent.
+       *
+       * @return the time this item was last returned to the bag
+       */
+      default long getLastAccessed()
+      {
+         return 0L;
+      }
    }
 
    public interface IBagStateListener
@@ -93,13 +165,73 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     * @param listener the IBagStateListener to attach to this bag
     */
    public ConcurrentBag(final IBagStateListener listener)
+   {
+      this(listener, HandoffPolicy.FAIR);
+   }
+
+   /**
+    * Construct a ConcurrentBag with the specified listener and hand-off policy.
+    *
+    * @param listener the IBagStateListener to attach to this bag
+    * @param handoffPolicy the policy used to select which waiter receives a returned item
+    */
+   public ConcurrentBag(final IBagStateListener listener, final HandoffPolicy handoffPolicy)
+   {
+      this(listener, handoffPolicy, BorrowOrder.MRU, DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Construct a ConcurrentBag with the specified listener, hand-off policy, borrow order and initial slot capacity.
+    *
+    * @param listener the IBagStateListener to attach to this bag
+    * @param handoffPolicy the policy used to select which waiter receives a returned item
+    * @param borrowOrder the order in which idle items are selected for borrowing
+    * @param capacity the initial number of slots, typically the maximum size of the pool
+    */
+   public ConcurrentBag(final IBagStateListener listener, final HandoffPolicy handoffPolicy, final BorrowOrder borrowOrder, final int capacity)
+   {
+      this(listener, handoffPolicy, borrowOrder, capacity, DEFAULT_STARVATION_LIMIT);
+   }
+
+   /**
+    * Construct a ConcurrentBag with the specified listener, hand-off policy, borrow order, initial slot capacity
+    * and priority starvation limit.
+    *
+    * @param listener the IBagStateListener to attach to this bag
+    * @param handoffPolicy the policy used to select which waiter receives a returned item
+    * @param borrowOrder the order in which idle items are selected for borrowing
+    * @param capacity the initial number of slots, typically the maximum size of the pool
+    * @param starvationLimit the number of consecutive hand-offs to higher priority classes after which a waiting
+    *                        lower priority class is served
+    */
+   public ConcurrentBag(final IBagStateListener listener, final HandoffPolicy handoffPolicy, final BorrowOrder borrowOrder, final int capacity, final int starvationLimit)
    {
       this.listener = listener;
       this.useWeakThreadLocals = useWeakThreadLocals();
 
-      this.handoffQueue = new SynchronousQueue<>(true);
+      this.borrowOrder = borrowOrder != null ? borrowOrder : BorrowOrder.MRU;
+      this.useThreadLocals = this.borrowOrder == BorrowOrder.MRU;
+      this.roundRobinCursor = new AtomicInteger();
+      this.recencyRing = this.borrowOrder == BorrowOrder.MRU ? new AtomicReferenceArray<>(recencyCapacity(capacity)) : null;
+      this.recencyTop = new AtomicInteger();
+      this.dropExpiredWaiters = handoffPolicy == HandoffPolicy.DEADLINE;
+      this.waiterSequence = new AtomicLong();
+      this.waitQueues = newWaitQueues(Priority.values().length);
+      final Comparator<Waiter> waiterOrder = dropExpiredWaiters ? Waiter::compareDeadlines
+                                           : handoffPolicy == HandoffPolicy.UNFAIR ? (w1, w2) -> Waiter.compareArrivals(w2, w1)
+                                           : Waiter::compareArrivals;
+      for (var i = 0; i < waitQueues.length; i++) {
+         waitQueues[i] = new ConcurrentSkipListSet<>(waiterOrder);
+      }
+      this.bypassCounts = new AtomicIntegerArray(waitQueues.length);
+      this.starvationLimit = Math.max(1, starvationLimit);
       this.waiters = new AtomicInteger();
-      this.sharedList = new CopyOnWriteArrayList<>();
+      final AtomicReferenceArray<T>[] tables = newSlotTables(1);
+      tables[0] = new AtomicReferenceArray<>(Math.max(1, capacity));
+      this.slotTables = tables;
+      this.slotCount = new AtomicInteger();
+      this.growLock = new ReentrantLock();
+      this.stateCounters = new LongAdder[] { new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder() };
       this.threadLocalList = ThreadLocal.withInitial(() ->
          useWeakThreadLocals ? new ArrayList<>(16) : new FastList<>(IConcurrentBagEntry.class, 16)
       );
@@ -116,48 +248,146 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public T borrow(long timeout, final TimeUnit timeUnit) throws InterruptedException
    {
-      // Try the thread-local list first
-      final var list = threadLocalList.get();
-      for (var i = list.size() - 1; i >= 0; i--) {
-         final var entry = list.remove(i);
-         @SuppressWarnings("unchecked")
-         final T bagEntry = useWeakThreadLocals ? ((WeakReference<T>) entry).get() : (T) entry;
-         if (bagEntry != null && bagEntry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-            return bagEntry;
+      return borrow(timeout, timeUnit, Priority.NORMAL);
+   }
+
+   /**
+    * The method will borrow a BagEntry from the bag, blocking for the
+    * specified timeout if none are available.  While blocked, the borrower
+    * waits in the queue of the specified priority class.
+    *
+    * @param timeout how long to wait before giving up, in units of unit
+    * @param timeUnit a <code>TimeUnit</code> determining how to interpret the timeout parameter
+    * @param priority the priority class of the borrower
+    * @return a borrowed instance from the bag or null if a timeout occurs
+    * @throws InterruptedException if interrupted while waiting
+    */
+   public T borrow(long timeout, final TimeUnit timeUnit, final Priority priority) throws InterruptedException
+   {
+      // Try the thread-local list first, unless this is a virtual thread
+      if (useThreadLocals && !isVirtualThread(Thread.currentThread())) {
+         final var list = threadLocalList.get();
+         for (var i = list.size() - 1; i >= 0; i--) {
+            final var entry = list.remove(i);
+            @SuppressWarnings("unchecked")
+            final T bagEntry = useWeakThreadLocals ? ((WeakReference<T>) entry).get() : (T) entry;
+            if (bagEntry != null && transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+               return bagEntry;
+            }
          }
       }
 
-      // Otherwise, scan the shared list ... then poll the handoff queue
+      // Otherwise, scan the slot table ... then wait for a hand-off
       final var waiting = waiters.incrementAndGet();
       try {
-         for (T bagEntry : sharedList) {
-            if (bagEntry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-               // If we may have stolen another waiter's connection, request another bag add.
-               if (waiting > 1) {
-                  listener.addBagItem(waiting - 1);
-               }
-               return bagEntry;
+         final var bagEntry = claimFromSlots();
+         if (bagEntry != null) {
+            // If we may have stolen another waiter's connection, request another bag add.
+            if (waiting > 1) {
+               listener.addBagItem(waiting - 1);
             }
+            return bagEntry;
          }
 
          listener.addBagItem(waiting);
 
-         timeout = timeUnit.toNanos(timeout);
-         do {
-            final var start = currentTime();
-            final T bagEntry = handoffQueue.poll(timeout, NANOSECONDS);
-            if (bagEntry == null || bagEntry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-               return bagEntry;
-            }
+         return awaitHandoff(timeUnit.toNanos(timeout), priority);
+      }
+      finally {
+         waiters.decrementAndGet();
+      }
+   }
+
+   /**
+    * As {@link #borrow(long, TimeUnit, Priority)}, but an idle item that satisfies the preference is
+    * borrowed rather than the one the borrow order would select.  If no idle item satisfies it, any item
+    * is borrowed, or waited for, as usual.
+    *
+    * @param timeout how long to wait before giving up, in units of unit
+    * @param timeUnit a <code>TimeUnit</code> determining how to interpret the timeout parameter
+    * @param priority the priority class of the borrower
+    * @param preference the preference of the borrower among the idle items
+    * @return a borrowed instance from the bag or null if a timeout occurs
+    * @throws InterruptedException if interrupted while waiting
+    */
+   public T borrow(long timeout, final TimeUnit timeUnit, final Priority priority, final Predicate<T> preference) throws InterruptedException
+   {
+      final var bagEntry = claimPreferred(preference);
+      if (bagEntry != null) {
+         // If we may have stolen a waiter's connection, request another bag add.
+         final var waiting = waiters.get();
+         if (waiting > 0) {
+            listener.addBagItem(waiting);
+         }
+         return bagEntry;
+      }
 
-            timeout -= elapsedNanos(start);
-         } while (timeout > 10_000);
+      return borrow(timeout, timeUnit, priority);
+   }
 
-         return null;
+   /**
+    * The method will borrow a BagEntry from the bag without blocking.  If none is available,
+    * the returned future is completed by a later hand-off, on the thread that returns or adds
+    * the item.  The future does not time out by itself; completing or cancelling it withdraws
+    * the borrow request, and an item that is handed off concurrently is returned to the bag.
+    *
+    * @return a future completed with the borrowed instance from the bag
+    */
+   public CompletableFuture<T> borrowAsync()
+   {
+      return borrowAsync(Long.MAX_VALUE, TimeUnit.NANOSECONDS, Priority.NORMAL);
+   }
+
+   /**
+    * As {@link #borrowAsync()}, but with a priority class and a timeout that determines the
+    * deadline of the borrow request.  The future still does not time out by itself, but under the
+    * {@link HandoffPolicy#DEADLINE} policy it is cancelled by the first hand-off that finds
+    * the deadline has passed.
+    *
+    * @param timeout how long the caller intends to wait, in units of unit
+    * @param timeUnit a <code>TimeUnit</code> determining how to interpret the timeout parameter
+    * @param priority the priority class of the borrower
+    * @return a future completed with the borrowed instance from the bag
+    */
+   public CompletableFuture<T> borrowAsync(final long timeout, final TimeUnit timeUnit, final Priority priority)
+   {
+      final var bagEntry = claimFromSlots();
+      if (bagEntry != null) {
+         return CompletableFuture.completedFuture(bagEntry);
       }
-      finally {
+
+      final var waiting = waiters.incrementAndGet();
+      final var waitQueue = waitQueues[priority.ordinal()];
+      final var waiter = new AsyncWaiter<T>(priority, deadlineAfter(timeUnit.toNanos(timeout)), waiterSequence.incrementAndGet());
+      waiter.future.whenComplete((item, throwable) -> {
+         if (waiter.tryCancel()) {
+            waitQueue.remove(waiter);
+         }
          waiters.decrementAndGet();
+      });
+
+      listener.addBagItem(waiting);
+      waitQueue.add(waiter);
+
+      if (closed) {
+         waiter.future.cancel(false);
+         return waiter.future;
+      }
+
+      // see awaitHandoff(), an item may have been returned before we were enqueued
+      final var claimed = claimFromSlots();
+      if (claimed != null) {
+         if (waiter.tryCancel()) {
+            waitQueue.remove(waiter);
+            waiter.future.complete(claimed);
+         }
+         else {
+            transition(claimed, STATE_IN_USE, STATE_NOT_IN_USE);
+            handoff(claimed);
+         }
       }
+
+      return waiter.future;
    }
 
    /**
@@ -171,18 +401,19 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public void requite(final T bagEntry)
    {
-      bagEntry.setState(STATE_NOT_IN_USE);
+      int state;
+      do {
+         state = bagEntry.getState();
+      } while (!transition(bagEntry, state, STATE_NOT_IN_USE));
 
-      for (var i = 0; waiters.get() > 0; i++) {
-         if (bagEntry.getState() != STATE_NOT_IN_USE || handoffQueue.offer(bagEntry)) {
-            return;
-         }
-         else if ((i & 0xff) == 0xff) {
-            parkNanos(MICROSECONDS.toNanos(10));
-         }
-         else {
-            Thread.yield();
-         }
+      if (handoff(bagEntry)) {
+         return;
+      }
+
+      pushRecent(bagEntry);
+
+      if (!useThreadLocals || isVirtualThread(Thread.currentThread())) {
+         return;
       }
 
       final var threadLocalEntries = this.threadLocalList.get();
@@ -203,11 +434,16 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
          throw new IllegalStateException("ConcurrentBag has been closed, ignoring add()");
       }
 
-      sharedList.add(bagEntry);
+      // count the item before it becomes visible, after which other threads may transition it
+      counterFor(bagEntry.getState()).increment();
+      while (!tryClaimSlot(bagEntry)) {
+         // only reachable if more items are added than the configured capacity
+         grow(slotTables, slotCapacity() * 2);
+      }
+      slotCount.incrementAndGet();
 
-      // spin until a thread takes it or none are waiting
-      while (waiters.get() > 0 && bagEntry.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(bagEntry)) {
-         Thread.yield();
+      if (!handoff(bagEntry)) {
+         pushRecent(bagEntry);
       }
    }
 
@@ -222,17 +458,33 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public boolean remove(final T bagEntry)
    {
-      if (!bagEntry.compareAndSet(STATE_IN_USE, STATE_REMOVED) && !bagEntry.compareAndSet(STATE_RESERVED, STATE_REMOVED) && !closed) {
-         LOGGER.warn("Attempt to remove an object from the bag that was not borrowed or reserved: {}", bagEntry);
-         return false;
+      if (!transition(bagEntry, STATE_IN_USE, STATE_REMOVED) && !transition(bagEntry, STATE_RESERVED, STATE_REMOVED)) {
+         if (!closed) {
+            LOGGER.warn("Attempt to remove an object from the bag that was not borrowed or reserved: {}", bagEntry);
+            return false;
+         }
+
+         for (var state = bagEntry.getState(); state != STATE_REMOVED; state = bagEntry.getState()) {
+            if (transition(bagEntry, state, STATE_REMOVED)) {
+               break;
+            }
+         }
       }
 
-      final var removed = sharedList.remove(bagEntry);
+      final var removed = releaseSlot(bagEntry);
+      if (recencyRing != null) {
+         // removal is rare, so the references of the ring are cleared here rather than on the hot paths
+         for (var i = 0; i < recencyRing.length(); i++) {
+            recencyRing.compareAndSet(i, bagEntry, null);
+         }
+      }
       if (!removed && !closed) {
          LOGGER.warn("Attempt to remove an object from the bag that does not exist: {}", bagEntry);
       }
 
-      threadLocalList.get().remove(bagEntry);
+      if (useThreadLocals && !isVirtualThread(Thread.currentThread())) {
+         threadLocalList.get().remove(bagEntry);
+      }
 
       return removed;
    }
@@ -244,6 +496,15 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
    public void close()
    {
       closed = true;
+
+      // asynchronous borrowers would otherwise wait on a timer that may no longer run
+      for (var waitQueue : waitQueues) {
+         for (var waiter : waitQueue) {
+            if (waiter instanceof AsyncWaiter) {
+               ((AsyncWaiter<?>) waiter).future.cancel(false);
+            }
+         }
+      }
    }
 
    /**
@@ -257,8 +518,17 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public List<T> values(final int state)
    {
-      final var list = sharedList.stream().filter(e -> e.getState() == state).collect(Collectors.toList());
-      Collections.reverse(list);
+      final var list = new ArrayList<T>();
+      final var tables = slotTables;
+      for (var t = tables.length - 1; t >= 0; t--) {
+         final var table = tables[t];
+         for (var i = table.length() - 1; i >= 0; i--) {
+            final var bagEntry = table.get(i);
+            if (bagEntry != null && bagEntry.getState() == state) {
+               list.add(bagEntry);
+            }
+         }
+      }
       return list;
    }
 
@@ -270,10 +540,18 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     *
     * @return a possibly empty list of (all) bag items
     */
-   @SuppressWarnings("unchecked")
    public List<T> values()
    {
-      return (List<T>) sharedList.clone();
+      final var list = new ArrayList<T>(slotCount.get());
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            final var bagEntry = table.get(i);
+            if (bagEntry != null) {
+               list.add(bagEntry);
+            }
+         }
+      }
+      return list;
    }
 
    /**
@@ -290,7 +568,7 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public boolean reserve(final T bagEntry)
    {
-      return bagEntry.compareAndSet(STATE_NOT_IN_USE, STATE_RESERVED);
+      return transition(bagEntry, STATE_NOT_IN_USE, STATE_RESERVED);
    }
 
    /**
@@ -302,11 +580,8 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
    @SuppressWarnings("SpellCheckingInspection")
    public void unreserve(final T bagEntry)
    {
-      if (bagEntry.compareAndSet(STATE_RESERVED, STATE_NOT_IN_USE)) {
-         // spin until a thread takes it or none are waiting
-         while (waiters.get() > 0 && bagEntry.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(bagEntry)) {
-            Thread.yield();
-         }
+      if (transition(bagEntry, STATE_RESERVED, STATE_NOT_IN_USE)) {
+         handoff(bagEntry);
       }
       else {
          LOGGER.warn("Attempt to relinquish an object to the bag that was not reserved: {}", bagEntry);
@@ -325,29 +600,23 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
    }
 
    /**
-    * Get a count of the number of items in the specified state at the time of this call.
+    * Get a count of the number of items in the specified state at the time of this call.  The count
+    * is read from the per-state counters and does not scan the bag.
     *
     * @param state the state of the items to count
     * @return a count of how many items in the bag are in the specified state
     */
    public int getCount(final int state)
    {
-      var count = 0;
-      for (var e : sharedList) {
-         if (e.getState() == state) {
-            count++;
-         }
-      }
-      return count;
+      return (int) Math.max(0L, counterFor(state).sum());
    }
 
    public int[] getStateCounts()
    {
       final var states = new int[6];
-      for (var e : sharedList) {
-         ++states[e.getState()];
-      }
-      states[4] = sharedList.size();
+      states[STATE_NOT_IN_USE] = getCount(STATE_NOT_IN_USE);
+      states[STATE_IN_USE] = getCount(STATE_IN_USE);
+      states[4] = slotCount.get();
       states[5] = waiters.get();
 
       return states;
@@ -360,12 +629,485 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
     */
    public int size()
    {
-      return sharedList.size();
+      return slotCount.get();
+   }
+
+   /**
+    * Ensure that the bag has at least the specified number of slots, appending a new slot
+    * segment if necessary.  Existing slots are never copied or moved.
+    *
+    * @param capacity the minimum number of slots required
+    */
+   public void ensureCapacity(final int capacity)
+   {
+      for (var tables = slotTables; capacity > capacityOf(tables); tables = slotTables) {
+         grow(tables, capacity);
+      }
+   }
+
+   /**
+    * Get the total number of slots in the bag.
+    *
+    * @return the number of slots available to hold items
+    */
+   public int slotCapacity()
+   {
+      return capacityOf(slotTables);
    }
 
    public void dumpState()
    {
-      sharedList.forEach(entry -> LOGGER.info(entry.toString()));
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            final var entry = table.get(i);
+            if (entry != null) {
+               LOGGER.info(entry.toString());
+            }
+         }
+      }
+   }
+
+   /**
+    * Enqueue a waiter node for the current thread and park until an item is handed to it,
+    * or until the timeout elapses.
+    *
+    * @param timeoutNanos how long to wait, in nanoseconds
+    * @param priority the priority class of the waiter
+    * @return a borrowed instance from the bag or null if a timeout occurs
+    * @throws InterruptedException if interrupted while waiting
+    */
+   @SuppressWarnings("unchecked")
+   private T awaitHandoff(final long timeoutNanos, final Priority priority) throws InterruptedException
+   {
+      final var waiter = new Waiter(Thread.currentThread(), priority, deadlineAfter(timeoutNanos), waiterSequence.incrementAndGet());
+      waitQueues[waiter.priority].add(waiter);
+
+      // An item may have been returned after our scan but before we were enqueued, in which
+      // case requite() saw no waiter and left it in the slot table.  Re-scan before parking.
+      final var bagEntry = claimFromSlots();
+      if (bagEntry != null) {
+         if (waiter.tryCancel()) {
+            waitQueues[waiter.priority].remove(waiter);
+            return bagEntry;
+         }
+
+         if (waiter.item == Waiter.CANCELLED) {
+            // we were dropped as expired concurrently, but we have an item regardless
+            return bagEntry;
+         }
+
+         // we were handed an item concurrently, give the one we took to someone else
+         transition(bagEntry, STATE_IN_USE, STATE_NOT_IN_USE);
+         handoff(bagEntry);
+         return (T) waiter.item;
+      }
+
+      final var startTime = currentTime();
+      for (var remaining = timeoutNanos; waiter.item == null && remaining > 0; remaining = timeoutNanos - elapsedNanos(startTime)) {
+         parkNanos(this, remaining);
+         if (Thread.interrupted()) {
+            if (waiter.tryCancel()) {
+               waitQueues[waiter.priority].remove(waiter);
+               throw new InterruptedException();
+            }
+
+            Thread.currentThread().interrupt();
+            break;
+         }
+      }
+
+      if (waiter.tryCancel()) {
+         waitQueues[waiter.priority].remove(waiter);
+         return null;
+      }
+
+      final var item = waiter.item;
+      return item != Waiter.CANCELLED ? (T) item : null;
+   }
+
+   /**
+    * Compute the deadline of a waiter, in nanoseconds on the scale of {@link ClockSource#toNanos(long)}.
+    * The timeout is capped so that deadlines can always be compared by subtraction.
+    *
+    * @param timeoutNanos how long the waiter intends to wait, in nanoseconds
+    * @return the deadline of the waiter
+    */
+   private static long deadlineAfter(final long timeoutNanos)
+   {
+      return toNanos(currentTime()) + Math.min(timeoutNanos, Waiter.MAX_TIMEOUT_NANOS);
+   }
+
+   /**
+    * Transition an item from one state to another, keeping the per-state counters in step.
+    *
+    * @param bagEntry the item to transition
+    * @param expect the expected current state
+    * @param update the new state
+    * @return true if the transition was made, false if the item was not in the expected state
+    */
+   private boolean transition(final T bagEntry, final int expect, final int update)
+   {
+      if (bagEntry.compareAndSet(expect, update)) {
+         counterFor(expect).decrement();
+         counterFor(update).increment();
+         return true;
+      }
+
+      return false;
+   }
+
+   private LongAdder counterFor(final int state)
+   {
+      // states range from STATE_RESERVED (-2) to STATE_IN_USE (1)
+      return stateCounters[state - STATE_RESERVED];
+   }
+
+   /**
+    * Scan the slot table in place, claiming a not-in-use item according to the borrow order.
+    *
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimFromSlots()
+   {
+      switch (borrowOrder) {
+         case ROUND_ROBIN:
+            return claimRoundRobin();
+         case FIFO:
+            return claimLeastRecent();
+         default:
+            return claimMostRecent();
+      }
+   }
+
+   /**
+    * Record an item that has become idle in the recency ring of the MRU order.  The ring is a stack of
+    * bounded depth: the oldest records are overwritten, and an item may be recorded more than once, as
+    * the state of the item, not the ring, decides whether it can be claimed.
+    *
+    * @param bagEntry the idle item
+    */
+   private void pushRecent(final T bagEntry)
+   {
+      if (recencyRing != null) {
+         recencyRing.lazySet(recencyTop.getAndIncrement() & (recencyRing.length() - 1), bagEntry);
+      }
+   }
+
+   /**
+    * Claim the most recently returned not-in-use item, walking the recency ring down from its top and
+    * stopping at the first item that can be claimed.  Items that have dropped out of the ring are found
+    * by the first-free scan.
+    *
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimMostRecent()
+   {
+      final var mask = recencyRing.length() - 1;
+      final var top = recencyTop.get();
+      for (var n = 1; n <= recencyRing.length(); n++) {
+         final var index = (top - n) & mask;
+         final var bagEntry = recencyRing.get(index);
+         if (bagEntry != null && bagEntry.getState() == STATE_NOT_IN_USE && transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+            recencyRing.compareAndSet(index, bagEntry, null);
+            return bagEntry;
+         }
+      }
+
+      return claimFirst();
+   }
+
+   /**
+    * Claim the least recently returned not-in-use item.  If the selected item is taken by another
+    * thread first, the selection is repeated a few times before settling for any item.
+    *
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimLeastRecent()
+   {
+      for (var attempt = 0; attempt < 3; attempt++) {
+         T candidate = null;
+         var candidateTime = 0L;
+         for (var table : slotTables) {
+            for (var i = 0; i < table.length(); i++) {
+               final var bagEntry = table.get(i);
+               if (bagEntry != null && bagEntry.getState() == STATE_NOT_IN_USE) {
+                  final var lastAccessed = bagEntry.getLastAccessed();
+                  if (candidate == null || lastAccessed - candidateTime < 0) {
+                     candidate = bagEntry;
+                     candidateTime = lastAccessed;
+                  }
+               }
+            }
+         }
+
+         if (candidate == null) {
+            return null;
+         }
+         else if (transition(candidate, STATE_NOT_IN_USE, STATE_IN_USE)) {
+            return candidate;
+         }
+      }
+
+      return claimFirst();
+   }
+
+   /**
+    * Claim the first not-in-use item found, scanning from a cursor that advances with every call.
+    *
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimRoundRobin()
+   {
+      final var tables = slotTables;
+      final var capacity = capacityOf(tables);
+      final var start = Math.floorMod(roundRobinCursor.getAndIncrement(), capacity);
+
+      var tableIndex = 0;
+      var slot = start;
+      while (slot >= tables[tableIndex].length()) {
+         slot -= tables[tableIndex++].length();
+      }
+
+      for (var n = 0; n < capacity; n++) {
+         final var table = tables[tableIndex];
+         final var bagEntry = table.get(slot);
+         if (bagEntry != null && transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+            return bagEntry;
+         }
+
+         if (++slot == table.length()) {
+            slot = 0;
+            tableIndex = (tableIndex + 1) % tables.length;
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Claim the first not-in-use item found that satisfies the preference.
+    *
+    * @param preference the preference of the borrower
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimPreferred(final Predicate<T> preference)
+   {
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            final var bagEntry = table.get(i);
+            if (bagEntry != null && bagEntry.getState() == STATE_NOT_IN_USE && preference.test(bagEntry)
+               && transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+               return bagEntry;
+            }
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Claim the first not-in-use item found, scanning from the first slot.
+    *
+    * @return a claimed (in-use) item, or null if none was available
+    */
+   private T claimFirst()
+   {
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            final var bagEntry = table.get(i);
+            if (bagEntry != null && transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+               return bagEntry;
+            }
+         }
+      }
+
+      return null;
+   }
+
+   /**
+    * Place an item into the first free slot.
+    *
+    * @param bagEntry the item to place
+    * @return true if a free slot was claimed, false if the table is full
+    */
+   private boolean tryClaimSlot(final T bagEntry)
+   {
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            if (table.get(i) == null && table.compareAndSet(i, null, bagEntry)) {
+               return true;
+            }
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Release the slot held by an item.
+    *
+    * @param bagEntry the item whose slot should be released
+    * @return true if the item was found and its slot released, false otherwise
+    */
+   private boolean releaseSlot(final T bagEntry)
+   {
+      for (var table : slotTables) {
+         for (var i = 0; i < table.length(); i++) {
+            if (table.get(i) == bagEntry && table.compareAndSet(i, bagEntry, null)) {
+               slotCount.decrementAndGet();
+               counterFor(STATE_REMOVED).decrement();
+               return true;
+            }
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Append a slot segment so that the table holds at least the specified number of slots.  Only the
+    * (small) array of segment references is copied; the segments themselves are shared, so concurrent
+    * slot claims and releases against the previous array of segments remain visible.
+    *
+    * @param expected the array of segments observed by the caller
+    * @param capacity the minimum number of slots required
+    */
+   private void grow(final AtomicReferenceArray<T>[] expected, final int capacity)
+   {
+      growLock.lock();
+      try {
+         final var tables = slotTables;
+         final var current = capacityOf(tables);
+         if (tables == expected && capacity > current) {
+            final var grown = Arrays.copyOf(tables, tables.length + 1);
+            grown[tables.length] = new AtomicReferenceArray<>(capacity - current);
+            slotTables = grown;
+            LOGGER.debug("ConcurrentBag slot capacity increased from {} to {}", current, capacity);
+         }
+      }
+      finally {
+         growLock.unlock();
+      }
+   }
+
+   /**
+    * Get the depth of the recency ring for the initial capacity of the bag: a power of two that holds
+    * two records per item, so that items recorded twice do not push the others out of the ring.
+    *
+    * @param capacity the initial number of slots
+    * @return the number of records the ring holds
+    */
+   private static int recencyCapacity(final int capacity)
+   {
+      final var records = Math.max(MIN_RECENCY_CAPACITY, 2 * capacity);
+      return Integer.highestOneBit(records - 1) << 1;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <E> AtomicReferenceArray<E>[] newSlotTables(final int length)
+   {
+      return (AtomicReferenceArray<E>[]) new AtomicReferenceArray<?>[length];
+   }
+
+   @SuppressWarnings("unchecked")
+   private static ConcurrentSkipListSet<Waiter>[] newWaitQueues(final int length)
+   {
+      return (ConcurrentSkipListSet<Waiter>[]) new ConcurrentSkipListSet<?>[length];
+   }
+
+   private static int capacityOf(final AtomicReferenceArray<?>[] tables)
+   {
+      var capacity = 0;
+      for (var table : tables) {
+         capacity += table.length();
+      }
+      return capacity;
+   }
+
+   /**
+    * Hand a not-in-use item directly to exactly one waiting borrower, if there are any.  The item
+    * is transitioned to the in-use state on behalf of the waiter before it is handed over, so that
+    * it cannot be stolen in between, and the waiter is unparked exactly once.
+    *
+    * @param bagEntry an item in the not-in-use state
+    * @return true if the item was handed off or taken by another borrower, false if nobody is waiting
+    */
+   private boolean handoff(final T bagEntry)
+   {
+      final var now = dropExpiredWaiters ? toNanos(currentTime()) : 0L;
+      while (hasWaiters()) {
+         if (!transition(bagEntry, STATE_NOT_IN_USE, STATE_IN_USE)) {
+            return true;
+         }
+
+         final var waiter = nextWaiter(now);
+         if (waiter != null && waiter.tryFulfill(bagEntry)) {
+            return true;
+         }
+
+         transition(bagEntry, STATE_IN_USE, STATE_NOT_IN_USE);
+      }
+
+      return false;
+   }
+
+   private boolean hasWaiters()
+   {
+      for (var waitQueue : waitQueues) {
+         if (!waitQueue.isEmpty()) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Dequeue the waiter that should receive the next hand-off: the head of the highest priority class
+    * that has waiters, unless a lower class that still has waiters has been passed over starvationLimit
+    * times in a row, in which case the head of that class.
+    *
+    * @param now the current time, in nanoseconds, used to drop expired waiters under the DEADLINE policy
+    * @return the next waiter, or null if there are none
+    */
+   private Waiter nextWaiter(final long now)
+   {
+      for (var p = waitQueues.length - 1; p > 0; p--) {
+         if (bypassCounts.get(p) >= starvationLimit) {
+            final var waiter = pollWaiter(p, now);
+            if (waiter != null) {
+               bypassCounts.set(p, 0);
+               return waiter;
+            }
+         }
+      }
+
+      for (var p = 0; p < waitQueues.length; p++) {
+         final var waiter = pollWaiter(p, now);
+         if (waiter != null) {
+            bypassCounts.set(p, 0);
+            for (var lower = p + 1; lower < waitQueues.length; lower++) {
+               if (!waitQueues[lower].isEmpty()) {
+                  bypassCounts.incrementAndGet(lower);
+               }
+            }
+            return waiter;
+         }
+      }
+
+      return null;
+   }
+
+   private Waiter pollWaiter(final int priority, final long now)
+   {
+      final var waitQueue = waitQueues[priority];
+      var waiter = waitQueue.pollFirst();
+      while (dropExpiredWaiters && waiter != null && waiter.deadline - now <= 0L) {
+         waiter.expire();
+         waiter = waitQueue.pollFirst();
+      }
+
+      return waiter;
    }
 
    /**
@@ -388,4 +1130,98 @@ public class ConcurrentBag<T extends IConcurrentBagEntry> implements AutoCloseab
          return true;
       }
    }
+
+   /**
+    * A node representing a single thread waiting in {@link #borrow(long, TimeUnit)}.  The item
+    * field transitions exactly once, from null to either the handed-off item or to CANCELLED.
+    * Within its priority class, a node is ordered by arrival sequence (latest first under the UNFAIR
+    * policy), or by deadline and then arrival sequence.
+    */
+   private static class Waiter
+   {
+      private static final Object CANCELLED = new Object();
+      private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >> 2;
+      private static final AtomicReferenceFieldUpdater<Waiter, Object> ITEM_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Waiter.class, Object.class, "item");
+
+      private final Thread thread;
+      private final int priority;
+      private final long deadline;
+      private final long sequence;
+      private volatile Object item;
+
+      Waiter(final Thread thread, final Priority priority, final long deadline, final long sequence)
+      {
+         this.thread = thread;
+         this.priority = priority.ordinal();
+         this.deadline = deadline;
+         this.sequence = sequence;
+      }
+
+      static int compareArrivals(final Waiter w1, final Waiter w2)
+      {
+         return Long.compare(w1.sequence, w2.sequence);
+      }
+
+      static int compareDeadlines(final Waiter w1, final Waiter w2)
+      {
+         final var diff = w1.deadline - w2.deadline;
+         return diff != 0L ? (diff < 0L ? -1 : 1) : compareArrivals(w1, w2);
+      }
+
+      boolean tryFulfill(final Object bagEntry)
+      {
+         if (ITEM_UPDATER.compareAndSet(this, null, bagEntry)) {
+            unpark(thread);
+            return true;
+         }
+
+         return false;
+      }
+
+      boolean tryCancel()
+      {
+         return ITEM_UPDATER.compareAndSet(this, null, CANCELLED);
+      }
+
+      /**
+       * Drop this waiter because its deadline has passed, waking it so that it times out now.
+       */
+      void expire()
+      {
+         if (tryCancel()) {
+            unpark(thread);
+         }
+      }
+   }
+
+   /**
+    * A node representing a borrower waiting in {@link #borrowAsync()}.  A hand-off completes the
+    * future rather than unparking a thread, and fails if the future was completed (for example,
+    * cancelled or timed out) first.
+    */
+   private static final class AsyncWaiter<T> extends Waiter
+   {
+      private final CompletableFuture<T> future;
+
+      AsyncWaiter(final Priority priority, final long deadline, final long sequence)
+      {
+         super(null, priority, deadline, sequence);
+         this.future = new CompletableFuture<>();
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      boolean tryFulfill(final Object bagEntry)
+      {
+         return Waiter.ITEM_UPDATER.compareAndSet(this, null, bagEntry) && future.complete((T) bagEntry);
+      }
+
+      @Override
+      void expire()
+      {
+         if (tryCancel()) {
+            future.cancel(false);
+         }
+      }
+   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.util;
+
+/**
+ * The policy used by the {@link ConcurrentBag} to choose which waiting borrower receives
+ * an item that is returned to (or added to) the bag while threads are waiting.
+ */
+public enum HandoffPolicy
+{
+   /**
+    * Returned items are handed to the longest waiting borrower (FIFO).
+    */
+   FAIR,
+
+   /**
+    * Returned items are handed to the most recently arrived borrower (LIFO), whose thread
+    * is the most likely to still be running on a CPU.  Favors throughput over fairness.
+    */
+   UNFAIR,
+
+   /**
+    * Returned items are handed to the borrower with the nearest deadline, as given by its borrow
+    * timeout (earliest-deadline-first), so that callers with little time left are not queued
+    * behind callers with plenty.  Borrowers whose deadline has already passed are dropped from
+    * the queue rather than handed an item.  Waiters with equal deadlines are served FIFO.
+    */
+   DEADLINE
+}
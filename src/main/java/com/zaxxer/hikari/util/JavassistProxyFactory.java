@@ -58,9 +58,12 @@ public final class JavassistProxyFactory
 
       System.out.println("Generating following classes to " + genDirectory);
 
-      // Cast is not needed for these
-      String methodBody = "{ try { return delegate.method($$); } catch (SQLException e) { throw checkException(e); } }";
+      // Connection delegates first apply the state reset deferred from the previous borrower
+      String methodBody = "{ try { applyDeferredReset(); return delegate.method($$); } catch (SQLException e) { throw checkException(e); } }";
       generateProxyClass(Connection.class, ProxyConnection.class.getName(), methodBody);
+
+      // Cast is not needed for these
+      methodBody = "{ try { return delegate.method($$); } catch (SQLException e) { throw checkException(e); } }";
       generateProxyClass(Statement.class, ProxyStatement.class.getName(), methodBody);
       generateProxyClass(ResultSet.class, ProxyResultSet.class.getName(), methodBody);
       generateProxyClass(DatabaseMetaData.class, ProxyDatabaseMetaData.class.getName(), methodBody);
@@ -156,6 +159,8 @@ public final class JavassistProxyFactory
             // If the super-Proxy has concrete methods (non-abstract), transform the call into a simple super.method() call
             var superMethod = superCt.getMethod(intfMethod.getName(), intfMethod.getSignature());
             if ((superMethod.getModifiers() & Modifier.ABSTRACT) != Modifier.ABSTRACT && !isDefaultMethod(intf, intfMethod)) {
+               // the super-Proxy decides for itself when to apply a deferred reset
+               modifiedBody = modifiedBody.replace("applyDeferredReset(); ", "");
                modifiedBody = modifiedBody.replace("((cast) ", "");
                modifiedBody = modifiedBody.replace("delegate", "super");
                modifiedBody = modifiedBody.replace("super)", "super");
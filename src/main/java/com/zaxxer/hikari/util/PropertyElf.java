@@ -49,6 +49,9 @@ public final class PropertyElf
          if (target instanceof HikariConfig && keyName.startsWith("dataSource.")) {
             ((HikariConfig) target).addDataSourceProperty(keyName.substring("dataSource.".length()), value);
          }
+         else if (target instanceof HikariConfig && keyName.startsWith("lane.") && keyName.endsWith(".max")) {
+            ((HikariConfig) target).addLane(keyName.substring("lane.".length(), keyName.length() - ".max".length()), Integer.parseInt(value.toString().trim()));
+         }
          else {
             setProperty(target, keyName, value, methods);
          }
@@ -163,6 +166,9 @@ public final class PropertyElf
          else if (paramClass == String.class) {
             writeMethod.invoke(target, value);
          }
+         else if (paramClass.isEnum()) {
+            writeMethod.invoke(target, parseEnum(paramClass, value));
+         }
          else {
             try {
                logger.debug("Try to create a new instance of \"{}\"", propValue);
@@ -186,6 +192,12 @@ public final class PropertyElf
       return propertyName.substring(0, 1).toUpperCase(Locale.ENGLISH) + propertyName.substring(1);
    }
 
+   @SuppressWarnings("unchecked")
+   private static <E extends Enum<E>> E parseEnum(Class<?> enumClass, String value)
+   {
+      return Enum.valueOf((Class<E>) enumClass, value.trim().toUpperCase(Locale.ENGLISH));
+   }
+
    private static Optional<Duration> parseDuration(String value)
    {
       var matcher = DURATION_PATTERN.matcher(value);
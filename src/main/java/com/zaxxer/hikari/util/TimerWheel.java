@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.util;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timing wheel for coarse-grained timers, such as the maxLifetime and leak detection timers of the
+ * pool's connections.  Unlike a {@link java.util.concurrent.ScheduledThreadPoolExecutor}, whose
+ * delay queue is a heap, scheduling and cancelling a timer are O(1) and allocate nothing but the timer
+ * itself, at the cost of firing up to one tick late.
+ * <p>
+ * A single wheel, with a single thread, is shared by all of the pools in the JVM that use it.  The wheel
+ * only keeps time: an expired timer is run on the executor it was scheduled with, so that a slow task of
+ * one pool does not delay the timers of the others.
+ */
+public final class TimerWheel
+{
+   private static final Logger LOGGER = LoggerFactory.getLogger(TimerWheel.class);
+
+   private static final long TICK_NANOS = MILLISECONDS.toNanos(Long.getLong("com.zaxxer.hikari.timerWheel.tickMs", 100L));
+   private static final int WHEEL_SIZE = 512;
+
+   private static TimerWheel shared;
+   private static int references;
+
+   private final long tickNanos;
+   private final int mask;
+   private final Timeout[] buckets;
+   private final AtomicReference<Timeout> pending;
+   private final AtomicReference<Timeout> cancelled;
+   private final long startTime;
+   private final Thread worker;
+   private volatile boolean stopped;
+   private long tick;
+
+   /**
+    * Construct a timing wheel, and start its thread.
+    *
+    * @param tickNanos the resolution of the wheel, in nanoseconds
+    * @param wheelSize the number of buckets of the wheel, a power of two
+    */
+   TimerWheel(final long tickNanos, final int wheelSize)
+   {
+      if (Integer.bitCount(wheelSize) != 1) {
+         throw new IllegalArgumentException("wheelSize must be a power of two");
+      }
+
+      this.tickNanos = tickNanos;
+      this.mask = wheelSize - 1;
+      this.buckets = new Timeout[wheelSize];
+      this.pending = new AtomicReference<>();
+      this.cancelled = new AtomicReference<>();
+      this.startTime = System.nanoTime();
+      this.worker = new UtilityElf.DefaultThreadFactory("HikariCP timer wheel").newThread(this::run);
+      this.worker.start();
+   }
+
+   /**
+    * Get the timing wheel shared by the pools of the JVM, starting it if this is its first user.  Every call
+    * must be matched by a call to {@link #release()}.
+    *
+    * @return the shared timing wheel
+    */
+   public static TimerWheel acquire()
+   {
+      synchronized (TimerWheel.class) {
+         if (shared == null) {
+            shared = new TimerWheel(TICK_NANOS, WHEEL_SIZE);
+         }
+         references++;
+         return shared;
+      }
+   }
+
+   /**
+    * Release the shared timing wheel, stopping it if this was its last user.  Timers still pending are
+    * dropped.
+    */
+   public void release()
+   {
+      synchronized (TimerWheel.class) {
+         if (shared == this && --references == 0) {
+            shared = null;
+            stop();
+         }
+      }
+   }
+
+   /**
+    * Schedule a task to run once, after the specified delay.
+    *
+    * @param task the task
+    * @param executor the executor on which to run the task
+    * @param delay the delay
+    * @param unit the unit of the delay
+    * @return the timer, which may be cancelled
+    */
+   public ScheduledFuture<?> schedule(final Runnable task, final Executor executor, final long delay, final TimeUnit unit)
+   {
+      return add(new Timeout(this, task, executor, System.nanoTime() + unit.toNanos(delay), 0L));
+   }
+
+   /**
+    * Schedule a task to run periodically, first after the specified delay.
+    *
+    * @param task the task
+    * @param executor the executor on which to run the task
+    * @param initialDelay the delay before the first run
+    * @param period the period between runs
+    * @param unit the unit of the delay and the period
+    * @return the timer, which may be cancelled
+    */
+   public ScheduledFuture<?> scheduleAtFixedRate(final Runnable task, final Executor executor, final long initialDelay, final long period, final TimeUnit unit)
+   {
+      return add(new Timeout(this, task, executor, System.nanoTime() + unit.toNanos(initialDelay), Math.max(tickNanos, unit.toNanos(period))));
+   }
+
+   void stop()
+   {
+      stopped = true;
+      LockSupport.unpark(worker);
+   }
+
+   private Timeout add(final Timeout timeout)
+   {
+      Timeout head;
+      do {
+         head = pending.get();
+         timeout.nextPending = head;
+      } while (!pending.compareAndSet(head, timeout));
+
+      return timeout;
+   }
+
+   private void cancelled(final Timeout timeout)
+   {
+      Timeout head;
+      do {
+         head = cancelled.get();
+         timeout.nextCancelled = head;
+      } while (!cancelled.compareAndSet(head, timeout));
+   }
+
+   private void run()
+   {
+      while (!stopped) {
+         final var deadline = startTime + (tick + 1) * tickNanos;
+         for (var sleepNanos = deadline - System.nanoTime(); sleepNanos > 0; sleepNanos = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, sleepNanos);
+            if (stopped) {
+               return;
+            }
+         }
+
+         removeCancelled();
+         transferPending();
+         expire(buckets[(int) (tick & mask)]);
+         tick++;
+      }
+   }
+
+   private void removeCancelled()
+   {
+      for (var timeout = cancelled.getAndSet(null); timeout != null; ) {
+         final var next = timeout.nextCancelled;
+         timeout.nextCancelled = null;
+         if (timeout.isLinked) {
+            unlink(timeout);
+         }
+         timeout = next;
+      }
+   }
+
+   private void transferPending()
+   {
+      for (var timeout = pending.getAndSet(null); timeout != null; ) {
+         final var next = timeout.nextPending;
+         timeout.nextPending = null;
+         if (timeout.state == Timeout.ST_PENDING) {
+            link(timeout);
+         }
+         timeout = next;
+      }
+   }
+
+   private void expire(Timeout timeout)
+   {
+      while (timeout != null) {
+         final var next = timeout.next;
+         if (timeout.remainingRounds > 0) {
+            timeout.remainingRounds--;
+         }
+         else {
+            unlink(timeout);
+            timeout.fire();
+         }
+         timeout = next;
+      }
+   }
+
+   private void link(final Timeout timeout)
+   {
+      final var deadlineTicks = (timeout.deadline - startTime) / tickNanos;
+      timeout.remainingRounds = Math.max(0L, deadlineTicks - tick) / buckets.length;
+
+      final var index = (int) (Math.max(deadlineTicks, tick) & mask);
+      final var head = buckets[index];
+      timeout.index = index;
+      timeout.prev = null;
+      timeout.next = head;
+      if (head != null) {
+         head.prev = timeout;
+      }
+      buckets[index] = timeout;
+      timeout.isLinked = true;
+   }
+
+   private void unlink(final Timeout timeout)
+   {
+      if (timeout.prev != null) {
+         timeout.prev.next = timeout.next;
+      }
+      else {
+         buckets[timeout.index] = timeout.next;
+      }
+      if (timeout.next != null) {
+         timeout.next.prev = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.isLinked = false;
+   }
+
+   /**
+    * A timer of the wheel.  The latch on which {@link #get()} waits is only allocated for a timer that is waited
+    * on, which the pool's own timers never are.
+    * <p>
+    * A one-shot timer moves from pending to expired when it fires, and from expired to completed when its task
+    * has run.  As with a {@link java.util.concurrent.FutureTask}, it can be cancelled until it completes, including
+    * while its task is running, which the task itself may do by closing the resource the timer is for.
+    */
+   private static final class Timeout implements ScheduledFuture<Void>, Runnable
+   {
+      private static final int ST_PENDING = 0;
+      private static final int ST_CANCELLED = 1;
+      private static final int ST_EXPIRED = 2;
+      private static final int ST_COMPLETED = 3;
+      private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+      private static final AtomicReferenceFieldUpdater<Timeout, CountDownLatch> LATCH_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Timeout.class, CountDownLatch.class, "latch");
+
+      private final TimerWheel wheel;
+      private final Runnable task;
+      private final Executor executor;
+      private final long period;
+      private volatile int state;
+      private volatile long deadline;
+      private volatile Throwable failure;
+      private volatile CountDownLatch latch;
+
+      // the following are only accessed by the thread of the wheel, or before the timer is published to it
+      private long remainingRounds;
+      private int index;
+      private boolean isLinked;
+      private Timeout prev;
+      private Timeout next;
+      private Timeout nextPending;
+      private Timeout nextCancelled;
+
+      Timeout(final TimerWheel wheel, final Runnable task, final Executor executor, final long deadline, final long period)
+      {
+         this.wheel = wheel;
+         this.task = task;
+         this.executor = executor;
+         this.deadline = deadline;
+         this.period = period;
+      }
+
+      private void fire()
+      {
+         if (period > 0L) {
+            if (state != ST_PENDING) {
+               return;
+            }
+            deadline += period;
+            wheel.link(this);
+         }
+         else if (!STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_EXPIRED)) {
+            return;
+         }
+
+         try {
+            executor.execute(this);
+         }
+         catch (RejectedExecutionException e) {
+            LOGGER.debug("Timer task {} rejected by its executor", task, e);
+            if (period == 0L) {
+               complete(ST_EXPIRED, e);
+            }
+         }
+      }
+
+      /**
+       * Run the task on the executor.  A one-shot timer completes when its task has run; a periodic timer only
+       * completes if its task fails, after which it does not run again.  As with a
+       * {@link java.util.concurrent.ScheduledThreadPoolExecutor}, the failure is reported by {@link #get()}.
+       */
+      @Override
+      public void run()
+      {
+         try {
+            task.run();
+            if (period == 0L) {
+               complete(ST_EXPIRED, null);
+            }
+         }
+         catch (Throwable t) {
+            complete(period == 0L ? ST_EXPIRED : ST_PENDING, t);
+         }
+      }
+
+      private void complete(final int expected, final Throwable failure)
+      {
+         this.failure = failure;
+         if (STATE_UPDATER.compareAndSet(this, expected, ST_COMPLETED)) {
+            signal();
+         }
+      }
+
+      private void signal()
+      {
+         final var waiters = latch;
+         if (waiters != null) {
+            waiters.countDown();
+         }
+      }
+
+      @Override
+      public boolean cancel(final boolean mayInterruptIfRunning)
+      {
+         if (STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_CANCELLED)) {
+            wheel.cancelled(this);
+            signal();
+            return true;
+         }
+         if (STATE_UPDATER.compareAndSet(this, ST_EXPIRED, ST_CANCELLED)) {
+            signal();
+            return true;
+         }
+         return false;
+      }
+
+      @Override
+      public boolean isCancelled()
+      {
+         return state == ST_CANCELLED;
+      }
+
+      @Override
+      public boolean isDone()
+      {
+         final var current = state;
+         return current == ST_CANCELLED || current == ST_COMPLETED;
+      }
+
+      @Override
+      public long getDelay(final TimeUnit unit)
+      {
+         return unit.convert(deadline - System.nanoTime(), NANOSECONDS);
+      }
+
+      @Override
+      public int compareTo(final Delayed other)
+      {
+         return Long.compare(getDelay(NANOSECONDS), other.getDelay(NANOSECONDS));
+      }
+
+      @Override
+      public Void get() throws InterruptedException, ExecutionException
+      {
+         if (!isDone()) {
+            awaitLatch().await();
+         }
+         return result();
+      }
+
+      @Override
+      public Void get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+      {
+         if (!isDone() && !awaitLatch().await(timeout, unit)) {
+            throw new TimeoutException();
+         }
+         return result();
+      }
+
+      private CountDownLatch awaitLatch()
+      {
+         LATCH_UPDATER.compareAndSet(this, null, new CountDownLatch(1));
+         final var waiters = latch;
+         // a timer is done before it reads the latch to signal it, so it either saw this latch or is seen done here
+         if (isDone()) {
+            waiters.countDown();
+         }
+         return waiters;
+      }
+
+      private Void result() throws ExecutionException
+      {
+         if (state == ST_CANCELLED) {
+            throw new CancellationException();
+         }
+         if (failure != null) {
+            throw new ExecutionException(failure);
+         }
+         return null;
+      }
+   }
+}
@@ -16,6 +16,9 @@
 
 package com.zaxxer.hikari.util;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.Locale;
 import java.util.concurrent.*;
 import java.util.regex.Pattern;
@@ -31,6 +34,8 @@ public final class UtilityElf
 {
    private static final Pattern PASSWORD_MASKING_PATTERN = Pattern.compile("([?&;][^&#;=]*[pP]assword=)[^&#;]*");
 
+   private static final MethodHandle IS_VIRTUAL_HANDLE = findThreadMethod("isVirtual", MethodType.methodType(boolean.class));
+
    private UtilityElf()
    {
       // non-constructable
@@ -151,10 +156,50 @@ public final class UtilityElf
       return executor;
    }
 
+   /**
+    * Create a ThreadFactory that creates virtual threads with the specified name.
+    *
+    * @param threadName the thread name
+    * @return a ThreadFactory creating virtual threads, or null if virtual threads are not supported by this JVM
+    */
+   public static ThreadFactory createVirtualThreadFactory(final String threadName)
+   {
+      try {
+         final var builderClass = Class.forName("java.lang.Thread$Builder");
+         var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         builder = builderClass.getMethod("name", String.class).invoke(builder, threadName);
+         return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      }
+      catch (ReflectiveOperationException e) {
+         return null;
+      }
+   }
+
    // ***********************************************************************
    //                       Misc. public methods
    // ***********************************************************************
 
+   /**
+    * Determine whether the specified thread is a virtual thread.  Always returns
+    * {@code false} on JVMs that do not support virtual threads.
+    *
+    * @param thread the thread to check
+    * @return true if the thread is a virtual thread, false otherwise
+    */
+   public static boolean isVirtualThread(final Thread thread)
+   {
+      if (IS_VIRTUAL_HANDLE == null) {
+         return false;
+      }
+
+      try {
+         return (boolean) IS_VIRTUAL_HANDLE.invokeExact(thread);
+      }
+      catch (Throwable e) {
+         return false;
+      }
+   }
+
    /**
     * Get the int value of a transaction isolation level by name.
     *
@@ -189,6 +234,16 @@ public final class UtilityElf
       return -1;
    }
 
+   private static MethodHandle findThreadMethod(final String name, final MethodType type)
+   {
+      try {
+         return MethodHandles.publicLookup().findVirtual(Thread.class, name, type);
+      }
+      catch (NoSuchMethodException | IllegalAccessException e) {
+         return null;
+      }
+   }
+
    public static class CustomDiscardPolicy implements RejectedExecutionHandler
    {
       @Override
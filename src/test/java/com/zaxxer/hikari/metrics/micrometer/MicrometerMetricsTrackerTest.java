@@ -24,6 +24,7 @@ public class MicrometerMetricsTrackerTest
    public void close()
    {
       Assert.assertNotNull(mockMeterRegistry.find("hikaricp.connections.acquire").tag("pool", "mypool").timer());
+      Assert.assertNotNull(mockMeterRegistry.find("hikaricp.connections.acquire.priority").tags("pool", "mypool", "priority", "high").timer());
       Assert.assertNotNull(mockMeterRegistry.find("hikaricp.connections.usage").tag("pool", "mypool").timer());
       Assert.assertNotNull(mockMeterRegistry.find("hikaricp.connections.creation").tag("pool", "mypool").timer());
       Assert.assertNotNull(mockMeterRegistry.find("hikaricp.connections.timeout").tag("pool", "mypool").counter());
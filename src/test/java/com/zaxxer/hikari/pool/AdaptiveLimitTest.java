@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for adaptive pool sizing.
+ */
+public class AdaptiveLimitTest
+{
+   @Test
+   public void testConvergence()
+   {
+      // a database that serves 20 concurrent requests in 10ms each; beyond that, requests queue inside it
+      AdaptiveLimit limit = new AdaptiveLimit(1, 100);
+      int[] history = simulate(limit, 20, 60);
+
+      // the limit grows from the floor, and settles well short of the ceiling
+      assertTrue(history[5] > history[0]);
+      int settled = history[history.length - 1];
+      for (int i = 40; i < history.length; i++) {
+         assertTrue(Math.abs(history[i] - settled) <= 1);
+      }
+      assertTrue("settled at " + settled, settled >= 20 && settled <= 20 * AdaptiveLimit.TOLERANCE * 1.25);
+
+      // when the capacity of the database drops, the limit follows it down
+      history = simulate(limit, 5, 60);
+      settled = history[history.length - 1];
+      assertTrue("settled at " + settled, settled >= 5 && settled <= 5 * AdaptiveLimit.TOLERANCE * 1.5);
+   }
+
+   @Test
+   public void testBounds()
+   {
+      AdaptiveLimit limit = new AdaptiveLimit(4, 10);
+      assertEquals(4, limit.getLimit());
+
+      // a database that never slows down lets the limit reach the ceiling, but no further
+      for (int i = 0; i < 20; i++) {
+         limit.update(10.0d, true);
+      }
+      assertEquals(10, limit.getLimit());
+
+      // a database that keeps slowing down pushes the limit down, but not below the floor
+      for (int i = 0; i < 50; i++) {
+         limit.update(10.0d * (i + 1), true);
+      }
+      assertEquals(4, limit.getLimit());
+
+      // without demand, the limit does not grow
+      limit.update(10.0d, false);
+      assertEquals(4, limit.getLimit());
+   }
+
+   @Test
+   public void testPoolGrowsUnderDemand() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(8);
+      config.setAdaptivePoolSizing(true);
+      config.setConnectionTimeout(5000);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      System.setProperty("com.zaxxer.hikari.adaptiveSizing.periodMs", "50");
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         assertEquals(1, ds.getHikariPoolMXBean().getEffectiveMaximumPoolSize());
+
+         for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+               for (int j = 0; j < 100; j++) {
+                  try (Connection ignored = ds.getConnection()) {
+                     UtilityElf.quietlySleep(5);
+                  }
+               }
+               return null;
+            });
+         }
+
+         for (int i = 0; i < 300 && pool.getEffectiveMaximumPoolSize() < 4; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+         assertTrue(pool.getEffectiveMaximumPoolSize() >= 4);
+      }
+      finally {
+         executor.shutdownNow();
+         executor.awaitTermination(5, TimeUnit.SECONDS);
+         System.clearProperty("com.zaxxer.hikari.adaptiveSizing.periodMs");
+      }
+   }
+
+   /**
+    * Feed the limit the latency of a simulated database of the specified capacity, with requests always
+    * waiting for connections.
+    */
+   private static int[] simulate(final AdaptiveLimit limit, final int capacity, final int periods)
+   {
+      final int[] history = new int[periods];
+      for (int i = 0; i < periods; i++) {
+         final double latency = 10.0d * Math.max(1.0d, (double) limit.getLimit() / capacity);
+         history[i] = limit.update(latency, true);
+      }
+      return history;
+   }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for admission control of connection requests.
+ */
+public class AdmissionControlTest
+{
+   @Test
+   public void testMaximumWaiters() throws Exception
+   {
+      final AtomicInteger rejected = new AtomicInteger();
+      HikariConfig config = newStubHikariConfig(1, 1);
+      config.setConnectionTimeout(5000);
+      config.setMaximumWaiters(1);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionRejected()
+         {
+            rejected.incrementAndGet();
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         Connection held = ds.getConnection();
+
+         ExecutorService executor = Executors.newSingleThreadExecutor();
+         try {
+            Future<?> waiter = executor.submit(() -> {
+               ds.getConnection().close();
+               return null;
+            });
+            awaitWaiters(pool, 1);
+
+            // the queue is full, so this request fails at once rather than after connectionTimeout
+            long start = System.currentTimeMillis();
+            try (Connection ignored = ds.getConnection()) {
+               fail("Expected the request to be rejected");
+            }
+            catch (SQLTransientConnectionException e) {
+               assertTrue(e.getMessage().contains("maximumWaiters=1"));
+            }
+            assertTrue(System.currentTimeMillis() - start < 1000);
+
+            CompletableFuture<Connection> async = ds.getConnectionAsync(5000);
+            try {
+               async.get(5, TimeUnit.SECONDS);
+               fail("Expected the request to be rejected");
+            }
+            catch (ExecutionException e) {
+               assertTrue(e.getCause() instanceof SQLTransientConnectionException);
+            }
+            assertEquals(2, rejected.get());
+
+            // the admitted waiter is still served
+            held.close();
+            waiter.get(5, TimeUnit.SECONDS);
+         }
+         finally {
+            executor.shutdownNow();
+         }
+      }
+   }
+
+   @Test
+   public void testPredictedWait()
+   {
+      AdmissionController controller = new AdmissionController(true, 0);
+
+      // the return rate is not known yet
+      assertNull(controller.checkAdmission(10, true, true, 1));
+
+      for (int i = 0; i < 5; i++) {
+         controller.recordReturn();
+      }
+      UtilityElf.quietlySleep(TimeUnit.NANOSECONDS.toMillis(AdmissionController.SAMPLE_PERIOD_NANOS) + 50);
+      assertTrue(controller.sampleReturnRate() > 0.0d);
+
+      // about 5 returns per 150ms; the 10th waiter is expected to wait about 300ms
+      String reason = controller.checkAdmission(9, true, true, 50);
+      assertNotNull(reason);
+      assertTrue(reason.contains("predicted wait"));
+      assertNull(controller.checkAdmission(9, true, true, 60_000));
+
+      // a pool that can still grow or has idle connections admits every request
+      assertNull(controller.checkAdmission(9, true, false, 50));
+   }
+
+   @Test
+   public void testMaximumWaitersWithIdleConnections()
+   {
+      AdmissionController controller = new AdmissionController(false, 2);
+
+      // a burst of borrowers scanning for idle connections is not rejected
+      assertNull(controller.checkAdmission(5, false, false, 50));
+
+      // but once no connection is idle, the queue is bounded
+      assertNotNull(controller.checkAdmission(5, true, false, 50));
+      assertNull(controller.checkAdmission(1, true, false, 50));
+   }
+
+   private static void awaitWaiters(final HikariPool pool, final int count)
+   {
+      for (int i = 0; i < 500 && pool.getThreadsAwaitingConnection() < count; i++) {
+         UtilityElf.quietlySleep(10);
+      }
+
+      assertEquals(count, pool.getThreadsAwaitingConnection());
+   }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for {@link HikariDataSource#getConnectionAsync(long)}.
+ */
+public class AsyncConnectionTest
+{
+   @Test
+   public void testImmediateConnection() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         CompletableFuture<Connection> future = ds.getConnectionAsync(1000);
+         try (Connection connection = future.get(5, TimeUnit.SECONDS)) {
+            assertNotNull(connection);
+            assertEquals(1, getPool(ds).getActiveConnections());
+         }
+         assertEquals(0, getPool(ds).getActiveConnections());
+      }
+   }
+
+   @Test
+   public void testCompletedByReturnedConnection() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         HikariPool pool = getPool(ds);
+         Connection held = ds.getConnection();
+         Connection underlying = held.unwrap(Connection.class);
+
+         CompletableFuture<Connection> future = ds.getConnectionAsync(5000);
+         assertFalse(future.isDone());
+         assertEquals(1, pool.getThreadsAwaitingConnection());
+
+         held.close();
+         try (Connection connection = future.get(5, TimeUnit.SECONDS)) {
+            assertSame(underlying, connection.unwrap(Connection.class));
+         }
+         assertEquals(0, pool.getThreadsAwaitingConnection());
+      }
+   }
+
+   @Test
+   public void testNotCompletedOnReturningThread() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         Connection held = ds.getConnection();
+
+         CompletableFuture<Thread> completer = ds.getConnectionAsync(5000).thenApply(connection -> {
+            try (Connection ignored = connection) {
+               return Thread.currentThread();
+            }
+            catch (Exception e) {
+               throw new IllegalStateException(e);
+            }
+         });
+
+         held.close();
+         Thread thread = completer.get(5, TimeUnit.SECONDS);
+         assertNotSame(Thread.currentThread(), thread);
+         assertTrue(thread.getName().contains("async-connection"));
+      }
+   }
+
+   @Test
+   public void testCompletedOnCallerExecutor() throws Exception
+   {
+      ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "caller-executor"));
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         Connection held = ds.getConnection();
+
+         CompletableFuture<String> completer = ds.getConnectionAsync(5000, executor).thenApply(connection -> {
+            try (Connection ignored = connection) {
+               return Thread.currentThread().getName();
+            }
+            catch (Exception e) {
+               throw new IllegalStateException(e);
+            }
+         });
+
+         held.close();
+         assertEquals("caller-executor", completer.get(5, TimeUnit.SECONDS));
+      }
+      finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testRejectedCompletion() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         HikariPool pool = getPool(ds);
+         Connection held = ds.getConnection();
+
+         CompletableFuture<Connection> future = ds.getConnectionAsync(5000, command -> {
+            throw new RejectedExecutionException();
+         });
+
+         // the connection handed to the request goes back to the pool, rather than being lost with the completion
+         held.close();
+         try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+         }
+         catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+         }
+         assertEquals(1, pool.getIdleConnections());
+         assertEquals(0, pool.getActiveConnections());
+      }
+   }
+
+   @Test
+   public void testTimeout() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         HikariPool pool = getPool(ds);
+         try (Connection ignored = ds.getConnection()) {
+            long start = System.currentTimeMillis();
+            CompletableFuture<Connection> future = ds.getConnectionAsync(250);
+            try {
+               future.get(5, TimeUnit.SECONDS);
+               fail("Expected the request to time out");
+            }
+            catch (ExecutionException e) {
+               assertTrue(e.getCause() instanceof SQLTransientConnectionException);
+            }
+            assertTrue(System.currentTimeMillis() - start >= 250);
+            assertEquals(0, pool.getThreadsAwaitingConnection());
+         }
+
+         // the connection held above went back to the pool rather than to the timed out request
+         assertEquals(1, pool.getIdleConnections());
+      }
+   }
+
+   @Test
+   public void testCancel() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         HikariPool pool = getPool(ds);
+         Connection held = ds.getConnection();
+
+         CompletableFuture<Connection> future = ds.getConnectionAsync(5000);
+         assertEquals(1, pool.getThreadsAwaitingConnection());
+         assertTrue(future.cancel(true));
+         assertEquals(0, pool.getThreadsAwaitingConnection());
+
+         held.close();
+         assertEquals(1, pool.getIdleConnections());
+         assertEquals(0, pool.getActiveConnections());
+      }
+   }
+
+   @Test
+   public void testShutdownFailsPendingRequests() throws Exception
+   {
+      HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1));
+      Connection held = ds.getConnection();
+      CompletableFuture<Connection> future = ds.getConnectionAsync(60_000);
+
+      CompletableFuture.runAsync(() -> {
+         UtilityElf.quietlySleep(100);
+         ds.close();
+      });
+
+      try {
+         future.get(10, TimeUnit.SECONDS);
+         fail("Expected the request to fail");
+      }
+      catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof SQLTransientConnectionException);
+      }
+      finally {
+         held.close();
+         ds.close();
+      }
+   }
+}
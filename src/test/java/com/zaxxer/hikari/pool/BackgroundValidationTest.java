@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubConnection;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for the validation of idle connections ahead of their borrowers.
+ */
+public class BackgroundValidationTest
+{
+   @Test
+   public void testBorrowerDoesNotValidate() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(2);
+      config.setMaximumPoolSize(2);
+      config.setBackgroundValidation(true);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      AtomicInteger backgroundValidations = new AtomicInteger();
+      AtomicInteger borrowerValidations = new AtomicInteger();
+      Thread borrower = Thread.currentThread();
+
+      System.setProperty("com.zaxxer.hikari.aliveBypassWindowMs", "100");
+      System.setProperty("com.zaxxer.hikari.backgroundValidation.periodMs", "50");
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         StubConnection.networkTimeoutSetter = () -> {
+            (Thread.currentThread() == borrower ? borrowerValidations : backgroundValidations).incrementAndGet();
+            return null;
+         };
+
+         // idle connections are validated once the bypass window has passed, without being borrowed
+         UtilityElf.quietlySleep(500);
+         assertTrue(backgroundValidations.get() > 0);
+
+         // nor are they validated by the borrower, after sitting idle for longer than the bypass window
+         for (int i = 0; i < 5; i++) {
+            try (Connection connection = ds.getConnection()) {
+               assertTrue(connection.isValid(1));
+            }
+            UtilityElf.quietlySleep(150);
+         }
+         assertEquals(0, borrowerValidations.get());
+      }
+      finally {
+         StubConnection.networkTimeoutSetter = null;
+         System.clearProperty("com.zaxxer.hikari.aliveBypassWindowMs");
+         System.clearProperty("com.zaxxer.hikari.backgroundValidation.periodMs");
+      }
+   }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for the circuit breaker over connection creation.
+ */
+public class CircuitBreakerTest
+{
+   @Test
+   public void testStateTransitions()
+   {
+      CircuitBreaker breaker = new CircuitBreaker(3, 200, 1000);
+      assertFalse(breaker.recordFailure());
+      assertFalse(breaker.recordFailure());
+      assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+      assertTrue(breaker.allowRequest());
+
+      assertTrue(breaker.recordFailure());
+      assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+      assertFalse(breaker.allowRequest());
+
+      // a further failure restarts the open period
+      UtilityElf.quietlySleep(150);
+      assertFalse(breaker.recordFailure());
+      UtilityElf.quietlySleep(150);
+      assertFalse(breaker.allowRequest());
+
+      // after the open period, requests may wait again, and a single failure re-opens the circuit
+      UtilityElf.quietlySleep(100);
+      assertTrue(breaker.allowRequest());
+      assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+      assertFalse(breaker.allowRequest());
+      assertTrue(breaker.recordFailure());
+      assertFalse(breaker.allowRequest());
+
+      assertTrue(breaker.recordSuccess());
+      assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+      assertFalse(breaker.recordSuccess());
+   }
+
+   @Test
+   public void testSingleTrial() throws Exception
+   {
+      CircuitBreaker breaker = new CircuitBreaker(1, 100, 300);
+      assertTrue(breaker.recordFailure());
+      UtilityElf.quietlySleep(150);
+
+      // of the requests racing once the circuit is half-open, exactly one is admitted as the trial
+      int threads = 8;
+      CountDownLatch start = new CountDownLatch(1);
+      AtomicInteger admitted = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+         for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+               try {
+                  start.await();
+                  if (breaker.allowRequest()) {
+                     admitted.incrementAndGet();
+                  }
+               }
+               catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+            });
+         }
+         start.countDown();
+      }
+      finally {
+         executor.shutdown();
+         assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, admitted.get());
+      assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+      // a trial that records no outcome is replaced after the trial timeout
+      UtilityElf.quietlySleep(350);
+      assertTrue(breaker.allowRequest());
+      assertFalse(breaker.allowRequest());
+
+      assertTrue(breaker.recordSuccess());
+      assertTrue(breaker.allowRequest());
+      assertTrue(breaker.allowRequest());
+   }
+
+   @Test
+   public void testFailFast() throws Exception
+   {
+      SQLException failure = new SQLException("database is down", "08001");
+      StubDataSource stubDataSource = new StubDataSource();
+      stubDataSource.setThrowException(failure);
+
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(0);
+      config.setMaximumPoolSize(2);
+      config.setConnectionCreationParallelism(2);
+      config.setConnectionTimeout(1000);
+      config.setInitializationFailTimeout(-1);
+      config.setCircuitBreakerThreshold(2);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSource(stubDataSource);
+
+      System.setProperty("com.zaxxer.hikari.circuitBreaker.openMs", "2000");
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         assertEquals("CLOSED", ds.getHikariPoolMXBean().getCircuitBreakerState());
+
+         // the first request waits out connectionTimeout while the failures open the circuit
+         try (Connection ignored = ds.getConnection()) {
+            fail("Expected the request to time out");
+         }
+         catch (SQLTransientConnectionException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+         }
+         assertEquals("OPEN", ds.getHikariPoolMXBean().getCircuitBreakerState());
+
+         // the next fails at once, with the cause of the failures
+         long start = System.currentTimeMillis();
+         try (Connection ignored = ds.getConnection()) {
+            fail("Expected the request to fail fast");
+         }
+         catch (SQLTransientConnectionException e) {
+            assertTrue(e.getMessage().contains("circuit breaker"));
+            assertSame(failure, e.getCause());
+            assertEquals("08001", e.getSQLState());
+         }
+         assertTrue(System.currentTimeMillis() - start < 100);
+
+         // once half-open, a request waits for the pool to retry, which closes the circuit; the second creator
+         // spares the request from waiting out the backoff of the first
+         stubDataSource.setThrowException(null);
+         UtilityElf.quietlySleep(2100);
+         try (Connection connection = ds.getConnection()) {
+            assertFalse(connection.isClosed());
+         }
+         assertEquals("CLOSED", ds.getHikariPoolMXBean().getCircuitBreakerState());
+      }
+      finally {
+         System.clearProperty("com.zaxxer.hikari.circuitBreaker.openMs");
+      }
+   }
+}
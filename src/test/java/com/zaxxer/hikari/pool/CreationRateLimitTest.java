@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for the connection creation rate limit.
+ */
+public class CreationRateLimitTest
+{
+   @Test
+   public void testTokenBucket()
+   {
+      CreationRateLimiter limiter = new CreationRateLimiter(5);
+
+      // a burst of one second's worth of permits, then one every 200ms
+      for (int i = 0; i < 5; i++) {
+         assertEquals(0L, limiter.tryAcquire());
+      }
+      long waitNanos = limiter.tryAcquire();
+      assertTrue(waitNanos > 0L && waitNanos <= TimeUnit.MILLISECONDS.toNanos(200));
+
+      UtilityElf.quietlySleep(250);
+      assertEquals(0L, limiter.tryAcquire());
+      assertTrue(limiter.tryAcquire() > 0L);
+   }
+
+   @Test
+   public void testSharedLimiter()
+   {
+      CreationRateLimiter limiter = CreationRateLimiter.shared(3);
+      assertSame(limiter, CreationRateLimiter.shared(7));
+      assertEquals(limiter.getPermitsPerSecond(), CreationRateLimiter.shared(7).getPermitsPerSecond());
+   }
+
+   @Test
+   public void testThrottledFill() throws Exception
+   {
+      final AtomicInteger throttled = new AtomicInteger();
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(10);
+      config.setMaximumPoolSize(10);
+      config.setConnectionCreationParallelism(5);
+      config.setConnectionCreationRate(4);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionCreationThrottled()
+         {
+            throttled.incrementAndGet();
+         }
+      });
+
+      long start = System.currentTimeMillis();
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         // the first connection and a burst of four, then four per second
+         assertTrue(ds.awaitReady(5, TimeUnit.SECONDS));
+         assertTrue(System.currentTimeMillis() - start >= 1000);
+         assertTrue(throttled.get() > 0);
+      }
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubConnection;
+
+/**
+ * Tests for deferring the reset of the state of a returned connection to its next borrower.
+ */
+public class DeferredResetTest
+{
+   @Test
+   public void testDeferredReset() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(1);
+      config.setDeferStateReset(true);
+      config.setTransactionIsolation("TRANSACTION_READ_COMMITTED");
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         StubConnection unwrapped;
+         try (Connection connection = ds.getConnection()) {
+            unwrapped = connection.unwrap(StubConnection.class);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+         }
+
+         // the state is left on the connection when it is returned
+         assertFalse(unwrapped.getAutoCommit());
+         assertEquals(Connection.TRANSACTION_SERIALIZABLE, unwrapped.getTransactionIsolation());
+
+         try (Connection connection = ds.getConnection()) {
+            // the borrower sees the pool's defaults
+            assertTrue(connection.getAutoCommit());
+
+            // overriding the state with the value the connection already has costs no round trip
+            unwrapped.throwException = true;
+            connection.setAutoCommit(false);
+            unwrapped.throwException = false;
+
+            // the rest of the state is reset before the connection is used
+            try (PreparedStatement ignored = connection.prepareStatement("SELECT 1")) {
+               assertEquals(Connection.TRANSACTION_READ_COMMITTED, unwrapped.getTransactionIsolation());
+               assertFalse(unwrapped.getAutoCommit());
+            }
+         }
+
+         try (Connection connection = ds.getConnection();
+              PreparedStatement ignored = connection.prepareStatement("SELECT 1")) {
+            assertTrue(unwrapped.getAutoCommit());
+         }
+      }
+   }
+
+   @Test
+   public void testResetBeforeSavepoint() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(1);
+      config.setDeferStateReset(true);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         StubConnection unwrapped;
+         try (Connection connection = ds.getConnection()) {
+            unwrapped = connection.unwrap(StubConnection.class);
+            connection.setAutoCommit(false);
+         }
+         assertFalse(unwrapped.getAutoCommit());
+
+         // a method delegated to the driver runs on the state of the borrower, not the one left by the previous borrower
+         try (Connection connection = ds.getConnection()) {
+            connection.setSavepoint();
+            assertTrue(unwrapped.getAutoCommit());
+         }
+      }
+   }
+
+   @Test
+   public void testResetOnClose() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(1);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         StubConnection unwrapped;
+         try (Connection connection = ds.getConnection()) {
+            unwrapped = connection.unwrap(StubConnection.class);
+            connection.setAutoCommit(false);
+         }
+         assertTrue(unwrapped.getAutoCommit());
+      }
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for predictive pre-warming from a demand profile.
+ */
+public class DemandProfileTest
+{
+   @Test
+   public void testMinuteOfWeek()
+   {
+      // 2026-01-05 is a Monday
+      assertEquals(0, DemandProfile.minuteOfWeek(ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneOffset.UTC)));
+      assertEquals(24 * 60 + 61, DemandProfile.minuteOfWeek(ZonedDateTime.of(2026, 1, 6, 1, 1, 0, 0, ZoneOffset.UTC)));
+   }
+
+   @Test
+   public void testLearnAndPredict()
+   {
+      DemandProfile profile = new DemandProfile();
+      assertEquals(0, profile.predict(0));
+
+      // the peak of the first quarter hour is recorded when the second one begins
+      profile.sample(3, 0);
+      profile.sample(8, 5);
+      profile.sample(1, 15);
+      assertEquals(8, profile.predict(0));
+
+      // the ramp is predicted a quarter hour ahead, wrapping around the end of the week
+      assertEquals(8, profile.predict(DemandProfile.BUCKETS * DemandProfile.BUCKET_MINUTES - 1));
+
+      // a week later, the quieter quarter hour pulls the average down
+      profile.sample(2, 0);
+      profile.sample(1, 15);
+      assertEquals(7, profile.predict(0));
+   }
+
+   @Test
+   public void testExportImport()
+   {
+      DemandProfile profile = new DemandProfile();
+      profile.sample(4, 0);
+      profile.sample(2, 15);
+      profile.sample(0, 30);
+
+      String exported = profile.export();
+      assertEquals("4.0,2.0,", exported.substring(0, 8));
+
+      DemandProfile restored = new DemandProfile();
+      restored.load(exported);
+      assertEquals(exported, restored.export());
+      assertEquals(4, restored.predict(0));
+
+      try {
+         restored.load("1,2,3");
+         fail("Expected a malformed profile to be rejected");
+      }
+      catch (IllegalArgumentException e) {
+         // expected
+      }
+      assertEquals(exported, restored.export());
+   }
+
+   @Test
+   public void testPrewarm() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(10);
+      config.setPredictivePrewarming(true);
+      config.setDemandProfile(String.join(",", Collections.nCopies(DemandProfile.BUCKETS, "5")));
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      System.setProperty("com.zaxxer.hikari.demandSampling.periodMs", "20");
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         for (int i = 0; i < 300 && pool.getIdleConnections() < 5; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+         assertEquals(5, pool.getIdleConnections());
+
+         HikariPoolMXBean mxBean = ds.getHikariPoolMXBean();
+         assertEquals(DemandProfile.BUCKETS, mxBean.getDemandProfile().split(",", -1).length);
+         try {
+            mxBean.setDemandProfile("5,5");
+            fail("Expected a malformed profile to be rejected");
+         }
+         catch (IllegalArgumentException e) {
+            // expected
+         }
+      }
+      finally {
+         System.clearProperty("com.zaxxer.hikari.demandSampling.periodMs");
+      }
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for demand-driven shrinking of the pool.
+ */
+public class DemandTrimmingTest
+{
+   @Test
+   public void testPeakOverWindow()
+   {
+      DemandTracker tracker = new DemandTracker(500);
+      tracker.sample(10);
+      tracker.sample(2);
+      assertEquals(10, tracker.getPeak());
+
+      UtilityElf.quietlySleep(600);
+      assertEquals(0, tracker.getPeak());
+
+      tracker.sample(3);
+      assertEquals(3, tracker.getPeak());
+   }
+
+   @Test
+   public void testShrinkAfterBurst() throws Exception
+   {
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(2);
+      config.setMaximumPoolSize(10);
+      config.setDemandWindow(1000);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      System.setProperty("com.zaxxer.hikari.housekeeping.periodMs", "100");
+      System.setProperty("com.zaxxer.hikari.demandSampling.periodMs", "20");
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+
+         List<Connection> burst = new ArrayList<>();
+         for (int i = 0; i < 10; i++) {
+            burst.add(ds.getConnection());
+         }
+         UtilityElf.quietlySleep(100);
+         for (Connection connection : burst) {
+            connection.close();
+         }
+
+         // the burst is still within the demand window, so its connections are kept
+         UtilityElf.quietlySleep(300);
+         assertEquals(10, pool.getTotalConnections());
+
+         // once it has left the window, the pool shrinks back to minimumIdle
+         for (int i = 0; i < 300 && pool.getTotalConnections() > 2; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+         assertEquals(2, pool.getTotalConnections());
+         assertEquals(2, pool.getIdleConnections());
+      }
+      finally {
+         System.clearProperty("com.zaxxer.hikari.housekeeping.periodMs");
+         System.clearProperty("com.zaxxer.hikari.demandSampling.periodMs");
+      }
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.getUnsealedConfig;
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static com.zaxxer.hikari.pool.TestElf.setConfigUnitTest;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.mocks.StubConnection;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for the batched keepalive of idle connections.
+ */
+public class KeepaliveSweeperTest
+{
+   @Test
+   public void testConcurrentKeepalive() throws Exception
+   {
+      final AtomicInteger keepalives = new AtomicInteger();
+      HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(6);
+      config.setMaximumPoolSize(6);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordKeepaliveNanos(final long elapsedNanos)
+         {
+            keepalives.incrementAndGet();
+         }
+      });
+
+      AtomicInteger inFlight = new AtomicInteger();
+      AtomicInteger maxInFlight = new AtomicInteger();
+
+      System.setProperty("com.zaxxer.hikari.keepalive.sweepMs", "50");
+      setConfigUnitTest(true);
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         for (int i = 0; i < 300 && pool.getIdleConnections() < 6; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+
+         // a slow database: each keepalive takes a few hundred milliseconds
+         StubConnection.networkTimeoutSetter = () -> {
+            if (Thread.currentThread().getName().contains(":keepalive")) {
+               maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+               UtilityElf.quietlySleep(200);
+               inFlight.decrementAndGet();
+            }
+            return null;
+         };
+         getUnsealedConfig(ds).setKeepaliveTime(300);
+
+         // keepalives run concurrently, but never take more than half of the idle connections out of the pool
+         int minIdle = Integer.MAX_VALUE;
+         for (int i = 0; i < 150; i++) {
+            minIdle = Math.min(minIdle, pool.getIdleConnections());
+            UtilityElf.quietlySleep(10);
+         }
+         assertTrue("Expected concurrent keepalives, but at most " + maxInFlight.get() + " ran at once", maxInFlight.get() > 1);
+         assertTrue("Expected at least 3 idle connections, but " + minIdle + " were idle", minIdle >= 3);
+         assertTrue(keepalives.get() >= 6);
+      }
+      finally {
+         StubConnection.networkTimeoutSetter = null;
+         System.clearProperty("com.zaxxer.hikari.keepalive.sweepMs");
+         setConfigUnitTest(false);
+      }
+   }
+}
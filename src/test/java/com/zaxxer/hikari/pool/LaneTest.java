@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
+/**
+ * Tests for bulkhead lanes within a pool.
+ */
+public class LaneTest
+{
+   @Test
+   public void testLaneProperties()
+   {
+      Properties properties = new Properties();
+      properties.setProperty("maximumPoolSize", "4");
+      properties.setProperty("lane.reporting.max", "2");
+      properties.setProperty("lane.batch.max", "8");
+      properties.setProperty("dataSourceClassName", "com.zaxxer.hikari.mocks.StubDataSource");
+
+      HikariConfig config = new HikariConfig(properties);
+      assertEquals(Map.of("reporting", 2, "batch", 8), config.getLanes());
+
+      // a lane cannot be larger than the pool, which is applied to a copy of the config
+      HikariConfig copy = new HikariConfig();
+      config.copyStateTo(copy);
+      copy.validate();
+      assertEquals(Map.of("reporting", 2, "batch", 4), copy.getLanes());
+      assertEquals(Map.of("reporting", 2, "batch", 8), config.getLanes());
+
+      config.validate();
+      assertEquals(Map.of("reporting", 2, "batch", 4), config.getLanes());
+   }
+
+   @Test
+   public void testLaneQuota() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(0, 4);
+      config.setConnectionTimeout(250);
+      config.addLane("reporting", 2);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         Connection lane1 = ds.getLaneConnection("reporting");
+         Connection lane2 = ds.getLaneConnection("reporting");
+
+         // the lane is exhausted, but the rest of the pool is not
+         try (Connection ignored = ds.getLaneConnection("reporting")) {
+            fail("Expected the lane quota to be enforced");
+         }
+         catch (SQLTransientConnectionException e) {
+            assertTrue(e.getMessage().contains("lane reporting"));
+         }
+         try (Connection other = ds.getConnection()) {
+            assertEquals(3, getPool(ds).getActiveConnections());
+         }
+
+         // closing a connection of the lane, even an evicted one, frees its permit
+         getPool(ds).evictConnection(lane1);
+         lane1.close();
+         try (Connection lane3 = ds.getLaneConnection("reporting")) {
+            assertEquals(2, getPool(ds).getActiveConnections());
+         }
+
+         lane2.close();
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testUnknownLane() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(0, 4);
+      config.addLane("reporting", 2);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         ds.getLaneConnection("unknown");
+      }
+   }
+
+   @Test
+   public void testLaneMetrics() throws Exception
+   {
+      final List<String> recorded = Collections.synchronizedList(new ArrayList<>());
+      HikariConfig config = newStubHikariConfig(0, 4);
+      config.setConnectionTimeout(250);
+      config.addLane("reporting", 2);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordLaneConnectionAcquiredNanos(final String lane, final long elapsedAcquiredNanos)
+         {
+            recorded.add("acquired " + lane);
+         }
+
+         @Override
+         public void recordLaneConnectionTimeout(final String lane)
+         {
+            recorded.add("timeout " + lane);
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         try (Connection c1 = ds.getLaneConnection("reporting");
+              Connection c2 = ds.getLaneConnection("reporting")) {
+            ds.getLaneConnection("reporting");
+            fail("Expected the lane quota to be enforced");
+         }
+         catch (SQLTransientConnectionException e) {
+            // expected
+         }
+         ds.getConnection().close();
+
+         assertEquals(List.of("acquired reporting", "acquired reporting", "timeout reporting"), recorded);
+      }
+   }
+}
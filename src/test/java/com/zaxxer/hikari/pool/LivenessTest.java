@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static com.zaxxer.hikari.util.ClockSource.currentTime;
+import static com.zaxxer.hikari.util.ClockSource.plusMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubConnection;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for skipping borrow-time validation of connections recently proven alive.
+ */
+public class LivenessTest
+{
+   @Test
+   public void testAdaptiveWindow() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         PoolEntry entry = new PoolEntry(new StubConnection(), getPool(ds), false, true);
+         entry.setAliveWindow(100);
+
+         long now = currentTime();
+         entry.markValidated(now, 1000);
+         assertTrue(entry.isProvenAlive(plusMillis(now, 150), 0));
+
+         // each successful validation doubles the window, up to the maximum
+         entry.markValidated(now, 1000);
+         entry.markValidated(now, 1000);
+         entry.markValidated(now, 1000);
+         assertTrue(entry.isProvenAlive(plusMillis(now, 1000), 0));
+         assertFalse(entry.isProvenAlive(plusMillis(now, 1100), 0));
+
+         // a failure shrinks it back
+         entry.markSuspect();
+         assertTrue(entry.isProvenAlive(plusMillis(now, 100), 0));
+         assertFalse(entry.isProvenAlive(plusMillis(now, 150), 0));
+
+         // proof older than the last dead connection is not trusted
+         assertFalse(entry.isProvenAlive(now, now));
+      }
+   }
+
+   @Test
+   public void testMarkAliveSampled() throws Exception
+   {
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         PoolEntry entry = new PoolEntry(new StubConnection(), getPool(ds), false, true);
+
+         // a disabled window is never renewed
+         entry.setAliveWindow(0);
+         long proven = entry.lastProvenAlive;
+         UtilityElf.quietlySleep(10);
+         entry.markAlive();
+         assertEquals(proven, entry.lastProvenAlive);
+
+         // fresh proof is left alone, older proof is renewed
+         entry.setAliveWindow(10_000);
+         long now = currentTime();
+         entry.markValidated(now, 10_000);
+         entry.markAlive();
+         assertEquals(now, entry.lastProvenAlive);
+
+         entry.markValidated(plusMillis(now, -6_000), 10_000);
+         entry.markAlive();
+         assertTrue(entry.lastProvenAlive - now >= 0);
+      }
+   }
+
+   @Test
+   public void testValidationSkipped() throws Exception
+   {
+      AtomicInteger timeoutsSet = new AtomicInteger();
+
+      System.setProperty("com.zaxxer.hikari.aliveBypassWindowMs", "100");
+      try (HikariDataSource ds = new HikariDataSource(newStubHikariConfig(1, 1))) {
+         StubConnection.networkTimeoutSetter = () -> {
+            timeoutsSet.incrementAndGet();
+            return null;
+         };
+
+         // borrows after the bypass window validate the connection, and each one widens its window
+         UtilityElf.quietlySleep(150);
+         execute(ds);
+         assertTrue(timeoutsSet.get() > 0);
+         UtilityElf.quietlySleep(250);
+         execute(ds);
+         int afterValidation = timeoutsSet.get();
+
+         // the next one is proven alive by the statement of the previous one
+         UtilityElf.quietlySleep(150);
+         execute(ds);
+         assertEquals(afterValidation, timeoutsSet.get());
+
+         // until a dead connection is found
+         getPool(ds).recordDeadConnection();
+         UtilityElf.quietlySleep(150);
+         execute(ds);
+         assertTrue(timeoutsSet.get() > afterValidation);
+      }
+      finally {
+         StubConnection.networkTimeoutSetter = null;
+         System.clearProperty("com.zaxxer.hikari.aliveBypassWindowMs");
+      }
+   }
+
+   private static void execute(final HikariDataSource ds) throws Exception
+   {
+      try (Connection connection = ds.getConnection();
+           Statement statement = connection.createStatement()) {
+         statement.execute("SELECT 1");
+      }
+   }
+}
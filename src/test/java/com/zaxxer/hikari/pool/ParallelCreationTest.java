@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for concurrent connection creation.
+ */
+public class ParallelCreationTest
+{
+   @Test
+   public void testParallelFill() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(10, 10);
+      config.setConnectionCreationParallelism(5);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(200);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+
+         // nine connections take over 2 seconds one at a time, but two rounds of five in parallel
+         long start = System.currentTimeMillis();
+         for (int i = 0; i < 300 && pool.getTotalConnections() < 10; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+         assertEquals(10, pool.getTotalConnections());
+         assertTrue(System.currentTimeMillis() - start < 1500);
+      }
+   }
+
+   @Test
+   public void testCreationFollowsDeficit() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(0, 10);
+      config.setConnectionCreationParallelism(5);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(200);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         assertEquals(0, pool.getTotalConnections());
+
+         Future<Connection> c1 = executor.submit(() -> ds.getConnection());
+         Future<Connection> c2 = executor.submit(() -> ds.getConnection());
+         c1.get(5, TimeUnit.SECONDS).close();
+         c2.get(5, TimeUnit.SECONDS).close();
+
+         // two waiters cause two creations, not one per available creator
+         UtilityElf.quietlySleep(500);
+         assertEquals(2, pool.getTotalConnections());
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testMaximumPoolSizeNotExceeded() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(0, 3);
+      config.setConnectionCreationParallelism(3);
+      config.setIdleTimeout(0);
+
+      ExecutorService executor = Executors.newFixedThreadPool(16);
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         AtomicInteger maxTotal = new AtomicInteger();
+         AtomicBoolean running = new AtomicBoolean(true);
+
+         for (int t = 0; t < 16; t++) {
+            executor.submit(() -> {
+               while (running.get()) {
+                  try (Connection connection = ds.getConnection()) {
+                     maxTotal.accumulateAndGet(pool.getTotalConnections(), Math::max);
+                  }
+                  catch (Exception e) {
+                     // timeouts are expected under this load
+                  }
+                  // evict now and then, so that connections keep being created
+                  if (ThreadLocalRandom.current().nextInt(2) == 0) {
+                     pool.softEvictConnections();
+                  }
+               }
+               return null;
+            });
+         }
+
+         long deadline = System.currentTimeMillis() + 1000;
+         while (System.currentTimeMillis() < deadline) {
+            maxTotal.accumulateAndGet(pool.getTotalConnections(), Math::max);
+         }
+         running.set(false);
+
+         assertTrue("Expected at most 3 connections, but there were " + maxTotal.get(), maxTotal.get() <= 3);
+      }
+      finally {
+         executor.shutdownNow();
+         executor.awaitTermination(5, TimeUnit.SECONDS);
+      }
+   }
+}
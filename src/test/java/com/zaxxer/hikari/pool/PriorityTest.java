@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.Priority;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for connection request priority classes.
+ */
+public class PriorityTest
+{
+   @Test
+   public void testThreadPriority()
+   {
+      assertEquals(Priority.NORMAL, Priority.current());
+      assertEquals(Priority.NORMAL, Priority.setCurrent(Priority.LOW));
+      try {
+         assertEquals(Priority.LOW, Priority.current());
+      }
+      finally {
+         assertEquals(Priority.LOW, Priority.setCurrent(null));
+      }
+      assertEquals(Priority.NORMAL, Priority.current());
+   }
+
+   @Test
+   public void testHighPriorityServedFirst() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(1, 1);
+      config.setConnectionTimeout(5000);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         Connection held = ds.getConnection();
+
+         ExecutorService executor = Executors.newFixedThreadPool(2);
+         try {
+            Future<Long> low = executor.submit(() -> acquireAndHold(ds, Priority.LOW));
+            awaitWaiters(pool, 1);
+            Future<Long> high = executor.submit(() -> acquireAndHold(ds, Priority.HIGH));
+            awaitWaiters(pool, 2);
+
+            held.close();
+
+            // the high priority request arrived last, but is served first
+            assertTrue(high.get(5, TimeUnit.SECONDS) < low.get(5, TimeUnit.SECONDS));
+         }
+         finally {
+            executor.shutdownNow();
+         }
+      }
+   }
+
+   @Test
+   public void testPriorityMetrics() throws Exception
+   {
+      final List<Priority> recorded = Collections.synchronizedList(new ArrayList<>());
+      HikariConfig config = newStubHikariConfig(1, 1);
+      config.setConnectionTimeout(5000);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos, final Priority priority)
+         {
+            recorded.add(priority);
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         ds.getConnection(Priority.HIGH).close();
+         ds.getConnection().close();
+
+         Priority previous = Priority.setCurrent(Priority.LOW);
+         try {
+            ds.getConnection().close();
+         }
+         finally {
+            Priority.setCurrent(previous);
+         }
+
+         assertEquals(List.of(Priority.HIGH, Priority.NORMAL, Priority.LOW), recorded);
+      }
+   }
+
+   private static long acquireAndHold(final HikariDataSource ds, final Priority priority) throws Exception
+   {
+      try (Connection ignored = ds.getConnection(priority)) {
+         final long acquired = System.nanoTime();
+         UtilityElf.quietlySleep(100);
+         return acquired;
+      }
+   }
+
+   private static void awaitWaiters(final HikariPool pool, final int count)
+   {
+      for (int i = 0; i < 500 && pool.getThreadsAwaitingConnection() < count; i++) {
+         UtilityElf.quietlySleep(10);
+      }
+
+      assertEquals(count, pool.getThreadsAwaitingConnection());
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.mocks.StubDataSource;
+
+/**
+ * Tests for the initial fill of the pool and the readiness API.
+ */
+public class ReadinessTest
+{
+   @Test
+   public void testAwaitReady() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(10, 10);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(200);
+      config.setInitialFillParallelism(5);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPoolMXBean mxBean = ds.getHikariPoolMXBean();
+         assertFalse(mxBean.isReady());
+         assertTrue(mxBean.getFillProgress() < 100);
+
+         // ten connections in two rounds of five, rather than ten rounds of one
+         long start = System.currentTimeMillis();
+         assertTrue(ds.awaitReady(5, TimeUnit.SECONDS));
+         assertTrue(System.currentTimeMillis() - start < 1500);
+
+         assertTrue(mxBean.isReady());
+         assertEquals(100, mxBean.getFillProgress());
+         assertEquals(10, mxBean.getTotalConnections());
+      }
+   }
+
+   @Test
+   public void testWhenReady() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(10, 10);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(20);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         CompletableFuture<Integer> total = ds.whenReady().thenApply(ignored -> getPool(ds).getTotalConnections()).toCompletableFuture();
+         assertTrue(total.get(5, TimeUnit.SECONDS) >= 10);
+      }
+   }
+
+   @Test
+   public void testBlockUntilFilled() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(10, 10);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(20);
+      config.setBlockUntilFilled(true);
+      config.setInitializationFailTimeout(5000);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         assertTrue(ds.getHikariPoolMXBean().isReady());
+         assertEquals(10, ds.getHikariPoolMXBean().getTotalConnections());
+      }
+   }
+
+   @Test
+   public void testShutdownBeforeReady() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(10, 10);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(500);
+
+      CompletableFuture<Void> ready;
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         ready = ds.whenReady().toCompletableFuture();
+      }
+
+      try {
+         ready.get(5, TimeUnit.SECONDS);
+      }
+      catch (ExecutionException e) {
+         assertTrue(e.getCause().getMessage().contains("shutdown"));
+         return;
+      }
+      throw new AssertionError("Expected the pool to fail readiness when shutdown");
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.mocks.StubDataSource;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Tests for make-before-break retirement and windowed soft eviction of connections.
+ */
+public class RetirementTest
+{
+   @Test
+   public void testMakeBeforeBreak() throws Exception
+   {
+      final AtomicInteger created = new AtomicInteger();
+      HikariConfig config = newStubHikariConfig(4, 4);
+      config.setMaxConcurrentRetirements(1);
+      ((StubDataSource) config.getDataSource()).setConnectionAcquisitionTime(50);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionCreatedMillis(long connectionCreatedMillis)
+         {
+            created.incrementAndGet();
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         assertTrue(ds.awaitReady(5, TimeUnit.SECONDS));
+
+         // each connection is replaced before it is evicted, one at a time
+         created.set(0);
+         ds.getHikariPoolMXBean().softEvictConnections();
+         int minIdle = Integer.MAX_VALUE;
+         int maxTotal = 0;
+         for (int i = 0; i < 500 && (created.get() < 4 || pool.getTotalConnections() > 4); i++) {
+            minIdle = Math.min(minIdle, pool.getIdleConnections());
+            maxTotal = Math.max(maxTotal, pool.getTotalConnections());
+            UtilityElf.quietlySleep(2);
+         }
+
+         assertEquals(4, created.get());
+         assertEquals(4, minIdle);
+         assertTrue(maxTotal <= 5);
+         assertEquals(4, pool.getTotalConnections());
+      }
+   }
+
+   @Test
+   public void testSuccessorsThrottled() throws Exception
+   {
+      final AtomicInteger created = new AtomicInteger();
+      final AtomicInteger throttled = new AtomicInteger();
+      HikariConfig config = newStubHikariConfig(4, 4);
+      config.setMaxConcurrentRetirements(4);
+      config.setConnectionCreationRate(4);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionCreatedMillis(long connectionCreatedMillis)
+         {
+            created.incrementAndGet();
+         }
+
+         @Override
+         public void recordConnectionCreationThrottled()
+         {
+            throttled.incrementAndGet();
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         assertTrue(ds.awaitReady(5, TimeUnit.SECONDS));
+
+         // the fill used up the permits, so the successors are opened at the configured rate rather than all at once
+         created.set(0);
+         throttled.set(0);
+         long start = System.currentTimeMillis();
+         ds.getHikariPoolMXBean().softEvictConnections();
+         for (int i = 0; i < 300 && created.get() < 4; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+
+         assertEquals(4, created.get());
+         assertTrue(throttled.get() > 0);
+         assertTrue(System.currentTimeMillis() - start >= 500);
+      }
+   }
+
+   @Test
+   public void testSoftEvictionWindow() throws Exception
+   {
+      final AtomicInteger created = new AtomicInteger();
+      HikariConfig config = newStubHikariConfig(4, 4);
+      config.setSoftEvictionWindow(1000);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionCreatedMillis(long connectionCreatedMillis)
+         {
+            created.incrementAndGet();
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         HikariPool pool = getPool(ds);
+         assertTrue(ds.awaitReady(5, TimeUnit.SECONDS));
+
+         // one connection every 250ms, rather than all four at once
+         created.set(0);
+         ds.getHikariPoolMXBean().softEvictConnections();
+         UtilityElf.quietlySleep(150);
+         assertTrue(created.get() < 2);
+
+         for (int i = 0; i < 300 && created.get() < 4; i++) {
+            UtilityElf.quietlySleep(10);
+         }
+         assertEquals(4, created.get());
+         assertEquals(4, pool.getTotalConnections());
+      }
+   }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newStubHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.ConnectionState;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.mocks.StubConnection;
+
+/**
+ * Tests for borrowing connections that already have the state wanted by the borrower.
+ */
+public class StateAffinityTest
+{
+   private final AtomicInteger hits = new AtomicInteger();
+   private final AtomicInteger misses = new AtomicInteger();
+
+   @Test
+   public void testPreferMatchingConnection() throws Exception
+   {
+      HikariConfig config = newStubHikariConfig(2, 2);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionStateAffinity(final boolean hit)
+         {
+            (hit ? hits : misses).incrementAndGet();
+         }
+      });
+      config.setDeferStateReset(true);
+
+      ConnectionState tenantA = ConnectionState.defaults().withSchema("tenant_a");
+      ConnectionState tenantB = ConnectionState.defaults().withSchema("tenant_b").withReadOnly(true);
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         StubConnection unwrappedA;
+         StubConnection unwrappedB;
+         try (Connection connectionA = ds.getConnection(tenantA);
+              Connection connectionB = ds.getConnection(tenantB)) {
+            unwrappedA = connectionA.unwrap(StubConnection.class);
+            unwrappedB = connectionB.unwrap(StubConnection.class);
+            assertEquals("tenant_a", unwrappedA.getSchema());
+            assertEquals("tenant_b", unwrappedB.getSchema());
+         }
+         assertEquals(0, hits.get());
+         assertEquals(2, misses.get());
+
+         // each tenant gets the connection left in its state, without setting it again
+         for (int i = 0; i < 3; i++) {
+            try (Connection connection = ds.getConnection(tenantB)) {
+               assertSame(unwrappedB, connection.unwrap(StubConnection.class));
+               assertEquals("tenant_b", connection.getSchema());
+            }
+            try (Connection connection = ds.getConnection(tenantA)) {
+               assertSame(unwrappedA, connection.unwrap(StubConnection.class));
+               assertEquals("tenant_a", connection.getSchema());
+            }
+         }
+         assertEquals(6, hits.get());
+         assertEquals(2, misses.get());
+
+         // a state no connection has is set on any connection
+         try (Connection connection = ds.getConnection(ConnectionState.defaults().withSchema("tenant_c"))) {
+            assertEquals("tenant_c", connection.unwrap(StubConnection.class).getSchema());
+         }
+         assertEquals(3, misses.get());
+      }
+   }
+
+   @Test
+   public void testRetainedCatalog() throws Exception
+   {
+      ConnectionState wanted = ConnectionState.defaults().withCatalog("tenant_a");
+      HikariConfig config = newStubHikariConfig(2, 2);
+      config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+         @Override
+         public void recordConnectionStateAffinity(final boolean hit)
+         {
+            (hit ? hits : misses).incrementAndGet();
+         }
+      });
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         // without a default catalog to reset to, the catalog set by the borrower is kept on the connection
+         try (Connection connection = ds.getConnection(wanted)) {
+            assertEquals("tenant_a", connection.getCatalog());
+         }
+         try (Connection connection = ds.getConnection(wanted)) {
+            assertEquals("tenant_a", connection.getCatalog());
+         }
+         assertEquals(1, hits.get());
+         assertEquals(1, misses.get());
+      }
+   }
+}
@@ -19,15 +19,27 @@ package com.zaxxer.hikari.pool;
 import static com.zaxxer.hikari.pool.TestElf.getPool;
 import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
 import static com.zaxxer.hikari.pool.TestElf.setSlf4jTargetStream;
+import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_IN_USE;
+import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_NOT_IN_USE;
+import static com.zaxxer.hikari.util.ConcurrentBag.IConcurrentBagEntry.STATE_RESERVED;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -35,7 +47,11 @@ import org.junit.Test;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.Priority;
+import com.zaxxer.hikari.util.BorrowOrder;
 import com.zaxxer.hikari.util.ConcurrentBag;
+import com.zaxxer.hikari.util.HandoffPolicy;
+import com.zaxxer.hikari.util.UtilityElf;
 
 /**
  *
@@ -114,4 +130,407 @@ public class TestConcurrentBag
          assertNotNull(notinuse.toString());
       }
    }
+
+   @Test
+   public void testSlotTable() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.FAIR, BorrowOrder.MRU, 2)) {
+         assertEquals(2, bag.slotCapacity());
+
+         PoolEntry first = pool.newPoolEntry(false);
+         PoolEntry second = pool.newPoolEntry(false);
+         bag.add(first);
+         bag.add(second);
+         assertEquals(2, bag.size());
+
+         // removal releases the slot, which is then reused without growing the table
+         assertTrue(bag.reserve(first));
+         assertTrue(bag.remove(first));
+         assertEquals(1, bag.size());
+         PoolEntry third = pool.newPoolEntry(false);
+         bag.add(third);
+         assertEquals(2, bag.slotCapacity());
+         assertEquals(2, bag.values().size());
+
+         // raising the capacity appends slots, existing items stay where they are
+         bag.ensureCapacity(5);
+         assertEquals(5, bag.slotCapacity());
+         bag.ensureCapacity(3);
+         assertEquals(5, bag.slotCapacity());
+         for (int i = 0; i < 3; i++) {
+            bag.add(pool.newPoolEntry(false));
+         }
+         assertEquals(5, bag.size());
+         assertEquals(5, bag.values(ConcurrentBag.IConcurrentBagEntry.STATE_NOT_IN_USE).size());
+         assertTrue(bag.values().contains(second));
+         assertTrue(bag.values().contains(third));
+         assertTrue(!bag.values().contains(first));
+
+         // adding beyond the capacity still succeeds
+         bag.add(pool.newPoolEntry(false));
+         assertEquals(6, bag.size());
+         assertTrue(bag.slotCapacity() >= 6);
+      }
+   }
+
+   @Test
+   public void testStateCounters() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.FAIR, BorrowOrder.MRU, 4)) {
+         PoolEntry[] entries = new PoolEntry[4];
+         for (int i = 0; i < entries.length; i++) {
+            entries[i] = pool.newPoolEntry(false);
+            bag.add(entries[i]);
+         }
+         assertCounts(bag, 4, 0, 0);
+
+         PoolEntry borrowed = bag.borrow(100, MILLISECONDS);
+         assertCounts(bag, 3, 1, 0);
+
+         PoolEntry reserved = borrowed == entries[3] ? entries[2] : entries[3];
+         assertTrue(bag.reserve(reserved));
+         assertCounts(bag, 2, 1, 1);
+
+         bag.unreserve(reserved);
+         assertCounts(bag, 3, 1, 0);
+
+         bag.requite(borrowed);
+         assertCounts(bag, 4, 0, 0);
+
+         assertTrue(bag.reserve(reserved));
+         assertTrue(bag.remove(reserved));
+         assertCounts(bag, 3, 0, 0);
+         assertEquals(3, bag.size());
+
+         ExecutorService executor = Executors.newFixedThreadPool(8);
+         try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+               futures.add(executor.submit(() -> {
+                  for (int i = 0; i < 10_000; i++) {
+                     PoolEntry entry = bag.borrow(1, TimeUnit.SECONDS);
+                     if (entry != null) {
+                        bag.requite(entry);
+                     }
+                  }
+                  return null;
+               }));
+            }
+            for (Future<?> future : futures) {
+               future.get();
+            }
+         }
+         finally {
+            executor.shutdownNow();
+         }
+
+         assertCounts(bag, 3, 0, 0);
+      }
+   }
+
+   @Test
+   public void testVirtualThreadBorrow() throws Exception
+   {
+      ExecutorService virtualExecutor;
+      try {
+         virtualExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch (NoSuchMethodException e) {
+         virtualExecutor = null;
+      }
+      assumeTrue("virtual threads are not supported by this JVM", virtualExecutor != null);
+
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.FAIR, BorrowOrder.MRU, 2)) {
+         bag.add(pool.newPoolEntry(false));
+         bag.add(pool.newPoolEntry(false));
+
+         List<Future<Boolean>> futures = new ArrayList<>();
+         for (int i = 0; i < 10_000; i++) {
+            futures.add(virtualExecutor.submit(() -> {
+               assertTrue(UtilityElf.isVirtualThread(Thread.currentThread()));
+               PoolEntry entry = bag.borrow(5, TimeUnit.SECONDS);
+               if (entry == null) {
+                  return false;
+               }
+               bag.requite(entry);
+               return true;
+            }));
+         }
+         for (Future<Boolean> future : futures) {
+            assertTrue(future.get());
+         }
+
+         assertCounts(bag, 2, 0, 0);
+      }
+      finally {
+         virtualExecutor.shutdown();
+      }
+   }
+
+   @Test
+   public void testMruBorrowOrder() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = newOrderedBag(BorrowOrder.MRU, 0, 0, 0)) {
+         PoolEntry[] entries = bag.values().toArray(new PoolEntry[0]);
+         for (int i = 0; i < entries.length; i++) {
+            assertSame(entries[entries.length - 1 - i], bag.borrow(100, MILLISECONDS));
+         }
+
+         // returned by another thread, so that the borrower's thread-local tier does not decide the order
+         Thread returner = new Thread(() -> {
+            bag.requite(entries[1]);
+            bag.requite(entries[0]);
+            bag.requite(entries[2]);
+         });
+         returner.start();
+         returner.join();
+
+         assertSame(entries[2], bag.borrow(100, MILLISECONDS));
+         assertSame(entries[0], bag.borrow(100, MILLISECONDS));
+         assertSame(entries[1], bag.borrow(100, MILLISECONDS));
+      }
+   }
+
+   @Test
+   public void testFifoBorrowOrder() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = newOrderedBag(BorrowOrder.FIFO, 100, 300, 200)) {
+         PoolEntry[] entries = bag.values().toArray(new PoolEntry[0]);
+         assertSame(entries[0], bag.borrow(100, MILLISECONDS));
+         assertSame(entries[2], bag.borrow(100, MILLISECONDS));
+         assertSame(entries[1], bag.borrow(100, MILLISECONDS));
+
+         // a returned entry goes to the back of the line, even when returned by the same thread
+         entries[0].lastAccessed = 400;
+         bag.requite(entries[0]);
+         entries[2].lastAccessed = 500;
+         bag.requite(entries[2]);
+         assertSame(entries[0], bag.borrow(100, MILLISECONDS));
+      }
+   }
+
+   @Test
+   public void testRoundRobinBorrowOrder() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = newOrderedBag(BorrowOrder.ROUND_ROBIN, 0, 0, 0)) {
+         List<PoolEntry> borrowed = new ArrayList<>();
+         for (int i = 0; i < 6; i++) {
+            PoolEntry entry = bag.borrow(100, MILLISECONDS);
+            borrowed.add(entry);
+            bag.requite(entry);
+         }
+
+         assertEquals(bag.values(), borrowed.subList(0, 3));
+         assertEquals(bag.values(), borrowed.subList(3, 6));
+      }
+   }
+
+   @Test
+   public void testHandoffToWaiter() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE))) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         ExecutorService executor = Executors.newSingleThreadExecutor();
+         try {
+            Future<PoolEntry> waiter = executor.submit(() -> bag.borrow(5, TimeUnit.SECONDS));
+            awaitWaiters(bag, 1);
+
+            bag.requite(entry);
+            assertSame(entry, waiter.get(5, TimeUnit.SECONDS));
+            assertEquals(0, bag.getCount(ConcurrentBag.IConcurrentBagEntry.STATE_NOT_IN_USE));
+            assertEquals(0, bag.getWaitingThreadCount());
+         }
+         finally {
+            executor.shutdownNow();
+         }
+      }
+   }
+
+   @Test
+   public void testHandoffTimeout() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE))) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         assertNull(bag.borrow(50, MILLISECONDS));
+         assertEquals(0, bag.getWaitingThreadCount());
+
+         // a timed-out waiter must not swallow a later hand-off
+         bag.requite(entry);
+         assertEquals(1, bag.getCount(ConcurrentBag.IConcurrentBagEntry.STATE_NOT_IN_USE));
+      }
+   }
+
+   @Test
+   public void testAsyncHandoff() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE))) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+
+         CompletableFuture<PoolEntry> immediate = bag.borrowAsync();
+         assertTrue(immediate.isDone());
+         assertSame(entry, immediate.get());
+
+         CompletableFuture<PoolEntry> first = bag.borrowAsync();
+         CompletableFuture<PoolEntry> second = bag.borrowAsync();
+         assertEquals(2, bag.getWaitingThreadCount());
+
+         // the oldest request is completed directly by the returning thread
+         bag.requite(entry);
+         assertSame(entry, first.getNow(null));
+         assertTrue(!second.isDone());
+
+         // a cancelled request is withdrawn and never receives an entry
+         assertTrue(second.cancel(false));
+         assertEquals(0, bag.getWaitingThreadCount());
+         bag.requite(entry);
+         assertEquals(1, bag.getCount(STATE_NOT_IN_USE));
+      }
+   }
+
+   @Test
+   public void testFairHandoffOrder() throws Exception
+   {
+      assertEquals("first", handoffWinner(HandoffPolicy.FAIR));
+   }
+
+   @Test
+   public void testUnfairHandoffOrder() throws Exception
+   {
+      assertEquals("second", handoffWinner(HandoffPolicy.UNFAIR));
+   }
+
+   @Test
+   public void testDeadlineHandoffOrder() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.DEADLINE)) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         ExecutorService executor = Executors.newFixedThreadPool(2);
+         try {
+            Future<PoolEntry> patient = executor.submit(() -> bag.borrow(2000, MILLISECONDS));
+            awaitWaiters(bag, 1);
+            Future<PoolEntry> urgent = executor.submit(() -> bag.borrow(1000, MILLISECONDS));
+            awaitWaiters(bag, 2);
+
+            // the later arrival has the nearer deadline, so it is served first
+            bag.requite(entry);
+            assertSame(entry, urgent.get(5, TimeUnit.SECONDS));
+            assertNull(patient.get(5, TimeUnit.SECONDS));
+         }
+         finally {
+            executor.shutdownNow();
+         }
+      }
+   }
+
+   @Test
+   public void testExpiredWaiterDropped() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.DEADLINE)) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         CompletableFuture<PoolEntry> expired = bag.borrowAsync(1, MILLISECONDS, Priority.NORMAL);
+         UtilityElf.quietlySleep(20);
+         CompletableFuture<PoolEntry> live = bag.borrowAsync(10, TimeUnit.SECONDS, Priority.NORMAL);
+         assertEquals(2, bag.getWaitingThreadCount());
+
+         // the expired waiter is dropped, not handed the entry
+         bag.requite(entry);
+         assertTrue(expired.isCancelled());
+         assertSame(entry, live.getNow(null));
+         assertEquals(0, bag.getWaitingThreadCount());
+      }
+   }
+
+   @Test
+   public void testPriorityHandoff() throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.FAIR, BorrowOrder.MRU, 1, 2)) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         CompletableFuture<PoolEntry> low = bag.borrowAsync(10, TimeUnit.SECONDS, Priority.LOW);
+         CompletableFuture<PoolEntry> high1 = bag.borrowAsync(10, TimeUnit.SECONDS, Priority.HIGH);
+         CompletableFuture<PoolEntry> high2 = bag.borrowAsync(10, TimeUnit.SECONDS, Priority.HIGH);
+         CompletableFuture<PoolEntry> high3 = bag.borrowAsync(10, TimeUnit.SECONDS, Priority.HIGH);
+
+         // HIGH is served first, until LOW has been passed over twice
+         List<CompletableFuture<PoolEntry>> expected = List.of(high1, high2, low, high3);
+         for (CompletableFuture<PoolEntry> future : expected) {
+            bag.requite(entry);
+            assertSame(entry, future.getNow(null));
+         }
+         assertEquals(0, bag.getWaitingThreadCount());
+      }
+   }
+
+   private static String handoffWinner(final HandoffPolicy policy) throws Exception
+   {
+      try (ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), policy)) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         bag.add(entry);
+         assertSame(entry, bag.borrow(100, MILLISECONDS));
+
+         ExecutorService executor = Executors.newFixedThreadPool(2);
+         try {
+            Future<PoolEntry> first = executor.submit(() -> bag.borrow(500, MILLISECONDS));
+            awaitWaiters(bag, 1);
+            UtilityElf.quietlySleep(50);
+            Future<PoolEntry> second = executor.submit(() -> bag.borrow(500, MILLISECONDS));
+            awaitWaiters(bag, 2);
+            UtilityElf.quietlySleep(50);
+
+            bag.requite(entry);
+
+            PoolEntry firstEntry = first.get(5, TimeUnit.SECONDS);
+            PoolEntry secondEntry = second.get(5, TimeUnit.SECONDS);
+            assertTrue("exactly one waiter should receive the entry", (firstEntry == null) != (secondEntry == null));
+            return firstEntry != null ? "first" : "second";
+         }
+         finally {
+            executor.shutdownNow();
+         }
+      }
+   }
+
+   private static ConcurrentBag<PoolEntry> newOrderedBag(final BorrowOrder borrowOrder, final long... lastAccessed) throws Exception
+   {
+      ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>(x -> CompletableFuture.completedFuture(Boolean.TRUE), HandoffPolicy.FAIR, borrowOrder, lastAccessed.length);
+      for (long accessed : lastAccessed) {
+         PoolEntry entry = pool.newPoolEntry(false);
+         entry.lastAccessed = accessed;
+         bag.add(entry);
+      }
+      return bag;
+   }
+
+   private static void assertCounts(final ConcurrentBag<PoolEntry> bag, final int idle, final int inUse, final int reserved)
+   {
+      assertEquals(idle, bag.getCount(STATE_NOT_IN_USE));
+      assertEquals(inUse, bag.getCount(STATE_IN_USE));
+      assertEquals(reserved, bag.getCount(STATE_RESERVED));
+      assertEquals(idle, bag.values(STATE_NOT_IN_USE).size());
+      assertEquals(inUse, bag.values(STATE_IN_USE).size());
+   }
+
+   private static void awaitWaiters(final ConcurrentBag<PoolEntry> bag, final int count)
+   {
+      for (int i = 0; i < 500 && bag.getWaitingThreadCount() < count; i++) {
+         UtilityElf.quietlySleep(10);
+      }
+
+      assertEquals(count, bag.getWaitingThreadCount());
+   }
 }
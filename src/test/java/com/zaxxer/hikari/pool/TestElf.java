@@ -18,6 +18,7 @@ package com.zaxxer.hikari.pool;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubDataSource;
 import com.zaxxer.hikari.util.ConcurrentBag;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Appender;
@@ -117,7 +118,7 @@ public final class TestElf
       }
    }
 
-   static void setSlf4jTargetStream(final Class<?> clazz, final PrintStream stream)
+   public static void setSlf4jTargetStream(final Class<?> clazz, final PrintStream stream)
    {
       try {
          Log4jLogger log4Jlogger = (Log4jLogger) LoggerFactory.getLogger(clazz);
@@ -168,6 +169,24 @@ public final class TestElf
       return config;
    }
 
+   /**
+    * Create a configuration, named after the calling test, for a pool of {@link StubDataSource} connections.
+    *
+    * @param minimumIdle the minimum number of idle connections
+    * @param maximumPoolSize the maximum size of the pool
+    * @return the configuration
+    */
+   public static HikariConfig newStubHikariConfig(final int minimumIdle, final int maximumPoolSize)
+   {
+      final HikariConfig config = newHikariConfig();
+      config.setPoolName(Thread.currentThread().getStackTrace()[2].getMethodName());
+      config.setMinimumIdle(minimumIdle);
+      config.setMaximumPoolSize(maximumPoolSize);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSource(new StubDataSource());
+      return config;
+   }
+
    static HikariDataSource newHikariDataSource()
    {
       final StackTraceElement callerStackTrace = Thread.currentThread().getStackTrace()[2];
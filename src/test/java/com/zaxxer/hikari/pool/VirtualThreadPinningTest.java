@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.pool;
+
+import static com.zaxxer.hikari.pool.TestElf.newHikariConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.mocks.StubStatement;
+import com.zaxxer.hikari.util.UtilityElf;
+
+/**
+ * Stress the pool and proxy hot paths from virtual threads while recording
+ * {@code jdk.VirtualThreadPinned} events, the same events reported by
+ * {@code -Djdk.tracePinnedThreads}.  JFR is accessed reflectively so that
+ * the test compiles on every supported JDK; it is skipped where virtual
+ * threads or JFR are unavailable.
+ */
+public class VirtualThreadPinningTest
+{
+   private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+   @After
+   public void teardown()
+   {
+      StubStatement.setSimulatedQueryTime(0);
+   }
+
+   @Test
+   public void testNoPinningUnderLoad() throws Exception
+   {
+      final ThreadFactory virtualThreadFactory = UtilityElf.createVirtualThreadFactory("pinning-test");
+      assumeTrue("virtual threads are not supported by this JVM", virtualThreadFactory != null);
+
+      final HikariConfig config = newHikariConfig();
+      config.setMinimumIdle(0);
+      config.setMaximumPoolSize(4);
+      config.setConnectionTimeout(10_000);
+      config.setUseVirtualThreads(true);
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         // warm up on a platform thread, so that class initialization is not recorded
+         exercise(ds);
+
+         final Object recording = startRecording();
+         assumeTrue("JFR is not available", recording != null);
+
+         StubStatement.setSimulatedQueryTime(1);
+         final AtomicReference<Throwable> failure = new AtomicReference<>();
+         final CountDownLatch latch = new CountDownLatch(500);
+         try (Connection shared = ds.getConnection()) {
+            for (int i = 0; i < 500; i++) {
+               final boolean useShared = i % 5 == 0;
+               virtualThreadFactory.newThread(() -> {
+                  try {
+                     if (useShared) {
+                        // contend on the statement tracking of a single connection
+                        Statement statement = shared.createStatement();
+                        statement.execute("SELECT 1");
+                        statement.close();
+                     }
+                     else {
+                        exercise(ds);
+                     }
+                  }
+                  catch (Throwable t) {
+                     failure.compareAndSet(null, t);
+                  }
+                  finally {
+                     latch.countDown();
+                  }
+               }).start();
+            }
+
+            assertTrue(latch.await(60, TimeUnit.SECONDS));
+         }
+
+         final List<String> pinned = stopRecording(recording);
+         if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+         }
+         assertEquals("Pinned virtual threads: " + pinned, 0, pinned.size());
+      }
+   }
+
+   private static void exercise(final HikariDataSource ds) throws Exception
+   {
+      try (Connection connection = ds.getConnection()) {
+         Statement statement = connection.createStatement();
+         statement.execute("SELECT 1");
+         statement.close();
+
+         // left open, so that Connection.close() closes the tracked statements
+         connection.createStatement().execute("SELECT 1");
+         connection.prepareStatement("SELECT 1");
+      }
+   }
+
+   private static Object startRecording()
+   {
+      try {
+         final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+         final Object recording = recordingClass.getConstructor().newInstance();
+         final Object settings = recordingClass.getMethod("enable", String.class).invoke(recording, PINNED_EVENT);
+         Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class).invoke(settings, Duration.ZERO);
+         Class.forName("jdk.jfr.EventSettings").getMethod("withStackTrace").invoke(settings);
+         recordingClass.getMethod("start").invoke(recording);
+         return recording;
+      }
+      catch (ReflectiveOperationException | LinkageError e) {
+         return null;
+      }
+   }
+
+   private static List<String> stopRecording(final Object recording) throws Exception
+   {
+      final Class<?> recordingClass = recording.getClass();
+      recordingClass.getMethod("stop").invoke(recording);
+
+      final Path file = Files.createTempFile("hikari-pinning", ".jfr");
+      try {
+         recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+         final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents", Path.class).invoke(null, file);
+
+         final List<String> pinned = new ArrayList<>();
+         for (Object event : events) {
+            final Object eventType = event.getClass().getMethod("getEventType").invoke(event);
+            if (PINNED_EVENT.equals(eventType.getClass().getMethod("getName").invoke(eventType))) {
+               pinned.add(event.toString());
+            }
+         }
+         return pinned;
+      }
+      finally {
+         recordingClass.getMethod("close").invoke(recording);
+         Files.deleteIfExists(file);
+      }
+   }
+}
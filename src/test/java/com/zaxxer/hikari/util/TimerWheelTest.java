@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2026 HikariCP contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zaxxer.hikari.util;
+
+import static com.zaxxer.hikari.pool.TestElf.getPool;
+import static com.zaxxer.hikari.pool.TestElf.getUnsealedConfig;
+import static com.zaxxer.hikari.pool.TestElf.setSlf4jTargetStream;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import java.sql.Connection;
+
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Tests for the hashed timing wheel.
+ */
+public class TimerWheelTest
+{
+   private static final Executor DIRECT = Runnable::run;
+
+   @Test
+   public void testScheduleAndCancel() throws Exception
+   {
+      TimerWheel wheel = new TimerWheel(MILLISECONDS.toNanos(10), 8);
+      try {
+         CountDownLatch fired = new CountDownLatch(1);
+         AtomicInteger cancelledRuns = new AtomicInteger();
+
+         long start = System.nanoTime();
+         ScheduledFuture<?> timer = wheel.schedule(fired::countDown, DIRECT, 50, MILLISECONDS);
+         ScheduledFuture<?> cancelled = wheel.schedule(cancelledRuns::incrementAndGet, DIRECT, 50, MILLISECONDS);
+         assertTrue(cancelled.cancel(false));
+         assertTrue(cancelled.isCancelled());
+
+         assertTrue(fired.await(1, TimeUnit.SECONDS));
+         assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(50));
+         assertTrue(timer.isDone());
+         assertFalse(timer.cancel(false));
+
+         UtilityElf.quietlySleep(100);
+         assertEquals(0, cancelledRuns.get());
+      }
+      finally {
+         wheel.stop();
+      }
+   }
+
+   @Test
+   public void testMultipleRounds() throws Exception
+   {
+      // eight buckets of 10ms make an 80ms round, so a 250ms timer waits out three rounds
+      TimerWheel wheel = new TimerWheel(MILLISECONDS.toNanos(10), 8);
+      try {
+         CountDownLatch fired = new CountDownLatch(1);
+         long start = System.nanoTime();
+         wheel.schedule(fired::countDown, DIRECT, 250, MILLISECONDS);
+
+         assertTrue(fired.await(1, TimeUnit.SECONDS));
+         long elapsedMs = MILLISECONDS.convert(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+         assertTrue(elapsedMs >= 250 && elapsedMs < 400);
+      }
+      finally {
+         wheel.stop();
+      }
+   }
+
+   @Test
+   public void testPeriodic() throws Exception
+   {
+      TimerWheel wheel = new TimerWheel(MILLISECONDS.toNanos(10), 8);
+      try {
+         AtomicInteger runs = new AtomicInteger();
+         ScheduledFuture<?> timer = wheel.scheduleAtFixedRate(runs::incrementAndGet, DIRECT, 20, 20, MILLISECONDS);
+
+         UtilityElf.quietlySleep(210);
+         assertTrue(runs.get() >= 5);
+         assertFalse(timer.isDone());
+
+         assertTrue(timer.cancel(false));
+         UtilityElf.quietlySleep(50);
+         int runsAtCancel = runs.get();
+         UtilityElf.quietlySleep(100);
+         assertEquals(runsAtCancel, runs.get());
+      }
+      finally {
+         wheel.stop();
+      }
+   }
+
+   @Test
+   public void testGet() throws Exception
+   {
+      TimerWheel wheel = new TimerWheel(MILLISECONDS.toNanos(10), 8);
+      try {
+         AtomicInteger runs = new AtomicInteger();
+         ScheduledFuture<?> timer = wheel.schedule(runs::incrementAndGet, DIRECT, 50, MILLISECONDS);
+         try {
+            timer.get(10, MILLISECONDS);
+            fail("Expected the wait to time out");
+         }
+         catch (TimeoutException e) {
+            // expected
+         }
+
+         // waiting returns once the task has run
+         timer.get(1, TimeUnit.SECONDS);
+         assertEquals(1, runs.get());
+         assertTrue(timer.isDone());
+
+         ScheduledFuture<?> failing = wheel.schedule(() -> { throw new IllegalStateException(); }, DIRECT, 20, MILLISECONDS);
+         try {
+            failing.get();
+            fail("Expected the failure of the task");
+         }
+         catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+         }
+
+         ScheduledFuture<?> cancelled = wheel.schedule(runs::incrementAndGet, DIRECT, 50, MILLISECONDS);
+         cancelled.cancel(false);
+         assertTrue(cancelled.isDone());
+         try {
+            cancelled.get();
+            fail("Expected the timer to be cancelled");
+         }
+         catch (CancellationException e) {
+            // expected
+         }
+      }
+      finally {
+         wheel.stop();
+      }
+   }
+
+   @Test
+   public void testCancelWhileRunning() throws Exception
+   {
+      TimerWheel wheel = new TimerWheel(MILLISECONDS.toNanos(10), 8);
+      try {
+         // as with a FutureTask, a timer whose task is running can still be cancelled, even by the task itself
+         AtomicReference<ScheduledFuture<?>> self = new AtomicReference<>();
+         AtomicBoolean cancelledBySelf = new AtomicBoolean();
+         CountDownLatch scheduled = new CountDownLatch(1);
+         CountDownLatch ran = new CountDownLatch(1);
+         ScheduledFuture<?> timer = wheel.schedule(() -> {
+            try {
+               scheduled.await();
+               assertFalse(self.get().isDone());
+               cancelledBySelf.set(self.get().cancel(false));
+            }
+            catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+            finally {
+               ran.countDown();
+            }
+         }, DIRECT, 20, MILLISECONDS);
+         self.set(timer);
+         scheduled.countDown();
+
+         assertTrue(ran.await(1, TimeUnit.SECONDS));
+         assertTrue(cancelledBySelf.get());
+         assertTrue(timer.isDone());
+         assertTrue(timer.isCancelled());
+
+         // once it has completed, it cannot
+         ScheduledFuture<?> completed = wheel.schedule(() -> { }, DIRECT, 20, MILLISECONDS);
+         completed.get(1, TimeUnit.SECONDS);
+         assertFalse(completed.cancel(false));
+         assertFalse(completed.isCancelled());
+      }
+      finally {
+         wheel.stop();
+      }
+   }
+
+   @Test
+   public void testMaxLifetimeRetirement() throws Exception
+   {
+      HikariConfig config = new HikariConfig();
+      config.setMinimumIdle(0);
+      config.setMaximumPoolSize(1);
+      config.setUseTimerWheel(true);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      try (PrintStream ps = new PrintStream(baos, true);
+           HikariDataSource ds = new HikariDataSource(config)) {
+         setSlf4jTargetStream(Class.forName("com.zaxxer.hikari.pool.PoolEntry"), ps);
+         getUnsealedConfig(ds).setMaxLifetime(500);
+
+         try (Connection connection = ds.getConnection()) {
+            assertFalse(connection.isClosed());
+         }
+         assertEquals(1, getPool(ds).getTotalConnections());
+
+         // the expiration task closes the connection while its own timer is running, which must not be reported
+         for (int i = 0; i < 40 && getPool(ds).getTotalConnections() > 0; i++) {
+            UtilityElf.quietlySleep(50);
+         }
+         assertEquals(0, getPool(ds).getTotalConnections());
+         assertEquals("", baos.toString());
+      }
+   }
+
+   @Test
+   public void testSharedWheel()
+   {
+      TimerWheel first = TimerWheel.acquire();
+      TimerWheel second = TimerWheel.acquire();
+      assertSame(first, second);
+
+      first.release();
+      second.release();
+
+      // the wheel is stopped once its last user releases it, and a new one is started on demand
+      TimerWheel third = TimerWheel.acquire();
+      try {
+         assertNotSame(first, third);
+      }
+      finally {
+         third.release();
+      }
+   }
+
+   @Test
+   public void testPoolTimers() throws Exception
+   {
+      HikariConfig config = new HikariConfig();
+      config.setMinimumIdle(1);
+      config.setMaximumPoolSize(2);
+      config.setLeakDetectionThreshold(2000);
+      config.setUseTimerWheel(true);
+      config.setConnectionTestQuery("VALUES 1");
+      config.setDataSourceClassName("com.zaxxer.hikari.mocks.StubDataSource");
+
+      // every borrow schedules a leak timer on the wheel, and every return cancels it
+      try (HikariDataSource ds = new HikariDataSource(config)) {
+         for (int i = 0; i < 10_000; i++) {
+            try (Connection connection = ds.getConnection()) {
+               assertFalse(connection.isClosed());
+            }
+         }
+      }
+   }
+}
@@ -19,6 +19,7 @@ package com.zaxxer.hikari.util;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class UtilityElfTest
 {
@@ -52,4 +53,10 @@ public class UtilityElfTest
       //Act
       UtilityElf.getTransactionIsolation("9999");
    }
+
+   @Test
+   public void shouldNotReportPlatformThreadAsVirtual()
+   {
+      assertFalse(UtilityElf.isVirtualThread(Thread.currentThread()));
+   }
 }